@@ -0,0 +1,99 @@
+package com.pateda.game2048.benchmarks;
+
+import com.pateda.game2048.BitBoard;
+import com.pateda.game2048.GameController;
+import com.pateda.game2048.GameController.Direction;
+import com.pateda.game2048.HighScore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Fixed-seed board positions shared by all benchmarks so results are reproducible between runs
+public final class BoardCorpus {
+
+    public static final long SEED = 2048L;
+    public static final int SIZE = 1024; // Power of two so benchmarks can cycle with a mask
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    public enum Kind {
+        MID_GAME,  // Positions sampled along random games
+        SPARSE,    // At least 12 empty cells
+        FULL,      // Exactly one empty cell
+        GAME_OVER  // No legal move left
+    }
+
+    private BoardCorpus() {}
+
+    // Plays seeded random games and collects boards matching the requested kind
+    public static long[] sample(Kind kind, int count, long seed) {
+        Random random = new Random(seed);
+        long[] boards = new long[count];
+        int filled = 0;
+        long board = spawn(spawn(0, random), random);
+
+        while (filled < count) {
+            if (matches(kind, board, random)) boards[filled++] = board;
+
+            if (BitBoard.isGameOver(board)) {
+                board = spawn(spawn(0, random), random);
+                continue;
+            }
+            long moved;
+            do {
+                moved = BitBoard.move(board, DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+            } while (moved == board);
+            board = spawn(moved, random);
+        }
+        return boards;
+    }
+
+    public static long[] sample(Kind kind) {
+        return sample(kind, SIZE, SEED);
+    }
+
+    // A saved game with a mid-game board, undo history and a full high score table
+    public static GameController sampleGame(long seed) {
+        Random random = new Random(seed);
+        GameController game = new GameController(seed, BitBoard.SIZE);
+        game.setContinuePlaying(true);
+        long[] boards = sample(Kind.MID_GAME, 8, seed);
+        for (long board : boards) {
+            game.setPackedBoard(board);
+            game.handleMove(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+        }
+        List<HighScore> highScores = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            highScores.add(new HighScore("player" + i, 1000L + random.nextInt(100_000)));
+        }
+        Collections.sort(highScores);
+        game.setHighScores(highScores);
+        game.setScore(12_345);
+        return game;
+    }
+
+    private static boolean matches(Kind kind, long board, Random random) {
+        int empty = BitBoard.countEmpty(board);
+        return switch (kind) {
+            case MID_GAME -> random.nextInt(8) == 0;
+            case SPARSE -> empty >= 12;
+            case FULL -> empty == 1;
+            case GAME_OVER -> BitBoard.isGameOver(board);
+        };
+    }
+
+    private static long spawn(long board, Random random) {
+        int emptyCount = BitBoard.countEmpty(board);
+        if (emptyCount == 0) return board;
+        int target = random.nextInt(emptyCount);
+        int exponent = random.nextDouble() < 0.9 ? 1 : 2;
+        for (int i = 0; i < BitBoard.SIZE * BitBoard.SIZE; i++) {
+            if (BitBoard.getExponent(board, i / BitBoard.SIZE, i % BitBoard.SIZE) == 0 && target-- == 0) {
+                return BitBoard.setExponent(board, i / BitBoard.SIZE, i % BitBoard.SIZE, exponent);
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,72 @@
+package com.pateda.game2048.benchmarks;
+
+import com.pateda.game2048.BoardKernel;
+import com.pateda.game2048.GameController;
+import com.pateda.game2048.GameController.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Moves per second for each board size, through the size's kernel and through GameController.handleMove
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardSizeBenchmark {
+
+    private static final int BOARD_COUNT = 1024; // Power of two for cheap wrap-around
+    private static final int HISTORY_LIMIT = 64;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @Param({"3", "4", "5", "6", "7", "8"})
+    public int size;
+
+    private BoardKernel kernel;
+    private long[][] boards;
+    private long[] out;
+    private int index;
+    private GameController game;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        kernel = BoardKernel.forSize(size);
+        out = kernel.newBoard();
+        random = new Random(42);
+
+        // Mid-game like boards: about a third empty, small tiles dominating
+        boards = new long[BOARD_COUNT][];
+        int[][] tiles = new int[size][size];
+        for (int i = 0; i < BOARD_COUNT; i++) {
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    tiles[r][c] = random.nextInt(3) == 0 ? 0 : 1 << (1 + random.nextInt(1 + random.nextInt(9)));
+                }
+            }
+            boards[i] = kernel.fromArray(tiles);
+        }
+        newGame();
+    }
+
+    private void newGame() {
+        game = new GameController(random, size);
+        game.setContinuePlaying(true);
+        game.setHistoryLimit(HISTORY_LIMIT); // Long games on big boards would otherwise grow the undo history
+    }
+
+    @Benchmark
+    public int kernelMove() {
+        int i = index++;
+        return kernel.move(boards[i & (BOARD_COUNT - 1)], DIRECTIONS[i & 3], out);
+    }
+
+    // Includes spawn, game-over check and undo bookkeeping; restarts when the game ends
+    @Benchmark
+    public boolean handleMove() {
+        if (game.isGameOver()) newGame();
+        return game.handleMove(DIRECTIONS[index++ & 3]);
+    }
+}
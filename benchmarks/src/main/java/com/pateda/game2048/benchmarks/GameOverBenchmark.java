@@ -0,0 +1,36 @@
+package com.pateda.game2048.benchmarks;
+
+import com.pateda.game2048.GameController;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Game-over detection on playable boards and on finished ones (the worst case: every check runs)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameOverBenchmark {
+
+    @Param({"MID_GAME", "FULL", "GAME_OVER"})
+    public BoardCorpus.Kind kind;
+
+    private long[] boards;
+    private int index;
+    private GameController game;
+
+    @Setup
+    public void setup() {
+        boards = BoardCorpus.sample(kind);
+        game = new GameController();
+    }
+
+    @Benchmark
+    public boolean checkGameOver() {
+        game.setPackedBoard(boards[index++ & (boards.length - 1)]);
+        game.checkGameOver();
+        return game.isGameOver();
+    }
+}
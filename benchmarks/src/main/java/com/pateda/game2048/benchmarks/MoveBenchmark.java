@@ -0,0 +1,52 @@
+package com.pateda.game2048.benchmarks;
+
+import com.pateda.game2048.BitBoard;
+import com.pateda.game2048.GameController;
+import com.pateda.game2048.GameController.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Single moves per direction, through the raw tables and through GameController.handleMove
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+    private static final int HISTORY_LIMIT = 64;
+
+    @Param({"UP", "DOWN", "LEFT", "RIGHT"})
+    public Direction direction;
+
+    private long[] boards;
+    private int index;
+    private GameController game;
+
+    @Setup
+    public void setup() {
+        boards = BoardCorpus.sample(BoardCorpus.Kind.MID_GAME);
+        game = new GameController();
+        game.setContinuePlaying(true);
+        game.setHistoryLimit(HISTORY_LIMIT); // Every op pushes an undo entry; a whole-game history would grow without end
+    }
+
+    private long nextBoard() {
+        return boards[index++ & (boards.length - 1)];
+    }
+
+    @Benchmark
+    public long bitBoardMove() {
+        return BitBoard.move(nextBoard(), direction);
+    }
+
+    // Includes spawn, game-over check and undo bookkeeping
+    @Benchmark
+    public boolean handleMove() {
+        game.setPackedBoard(nextBoard());
+        game.setGameOver(false);
+        return game.handleMove(direction);
+    }
+}
@@ -0,0 +1,54 @@
+package com.pateda.game2048.benchmarks;
+
+import com.pateda.game2048.GameController;
+import com.pateda.game2048.GameController.SaveFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Save/load of a mid-game state with history and high scores, against a temp file, in each save format
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    public SaveFormat format;
+
+    private Path saveFile;
+    private GameController game;
+
+    @Setup
+    public void setup() throws IOException {
+        saveFile = Files.createTempFile("2048-bench", ".save");
+        game = BoardCorpus.sampleGame(BoardCorpus.SEED);
+        game.saveGame(saveFile.toString(), format);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saveFile);
+    }
+
+    @Benchmark
+    public void saveGame() {
+        game.saveGame(saveFile.toString(), format);
+    }
+
+    @Benchmark
+    public GameController loadGame() {
+        return GameController.loadGame(saveFile.toString());
+    }
+
+    @Benchmark
+    public GameController roundTrip() {
+        game.saveGame(saveFile.toString(), format);
+        return GameController.loadGame(saveFile.toString());
+    }
+}
@@ -0,0 +1,51 @@
+package com.pateda.game2048.benchmarks;
+
+import com.pateda.game2048.BitBoard;
+import com.pateda.game2048.GameController;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+// Tile spawning on nearly empty and nearly full boards, with the game's SplittableRandom and with
+// java.util.Random (atomic seed updates) for comparison
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnBenchmark {
+
+    @Param({"SPARSE", "FULL"})
+    public BoardCorpus.Kind kind;
+
+    @Param({"SPLITTABLE", "RANDOM"})
+    public String generator;
+
+    private long[] boards;
+    private int index;
+    private RandomGenerator random;
+    private GameController game;
+
+    @Setup
+    public void setup() {
+        boards = BoardCorpus.sample(kind);
+        random = generator.equals("RANDOM") ? new Random(42) : new SplittableRandom(42);
+        game = new GameController(random);
+    }
+
+    @Benchmark
+    public long bitBoardSpawn() {
+        return BitBoard.spawnRandom(boards[index++ & (boards.length - 1)], random);
+    }
+
+    @Benchmark
+    public long spawnNewTile() {
+        game.setPackedBoard(boards[index++ & (boards.length - 1)]);
+        game.spawnNewTile();
+        return game.getPackedBoard();
+    }
+}
@@ -0,0 +1,39 @@
+package com.pateda.game2048.benchmarks;
+
+import com.pateda.game2048.GameController;
+import com.pateda.game2048.GameController.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// A recorded move followed by undo, so history recording and restoring are measured together
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UndoBenchmark {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private long[] boards;
+    private int index;
+    private GameController game;
+
+    @Setup
+    public void setup() {
+        boards = BoardCorpus.sample(BoardCorpus.Kind.MID_GAME);
+        game = new GameController();
+        game.setContinuePlaying(true);
+    }
+
+    @Benchmark
+    public boolean moveThenUndo() {
+        int i = index++;
+        game.setPackedBoard(boards[i & (boards.length - 1)]);
+        game.setGameOver(false);
+        game.handleMove(DIRECTIONS[i & 3]);
+        return game.undo();
+    }
+}
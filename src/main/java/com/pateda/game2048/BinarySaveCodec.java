@@ -0,0 +1,202 @@
+package com.pateda.game2048;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Versioned binary save format, a fraction of the size of the JSON save and parsed without reflection.
+// Layout: magic, version, packed board, score, flags, then length-prefixed history and record blobs,
+// then the high score table (name, score, date, length-prefixed replay or -1).
+// Version 2 replaced the packed board with the board size and its BoardKernel words; version 3 (written now)
+// adds the spawn generator's seed and spawn count after the flags for seeded games. All three are read.
+// When the undo history is exactly what replaying the game record produces (the usual case), it is not
+// stored at all and is rebuilt from the record on load, which keeps saves to about a byte per move.
+public final class BinarySaveCodec {
+
+    private static final int MAGIC = 0x32303453; // "204S"
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte SIZED_FORMAT_VERSION = 2;
+    private static final byte SEEDED_FORMAT_VERSION = 3;
+
+    private static final int FLAG_GAME_OVER = 1;
+    private static final int FLAG_HAS_WON = 2;
+    private static final int FLAG_CONTINUE_PLAYING = 4;
+    private static final int FLAG_HISTORY_FROM_RECORD = 8;
+    private static final int FLAG_SEEDED = 16;
+
+    private BinarySaveCodec() {}
+
+    // True if the data starts with the binary save magic (JSON saves start with '{')
+    public static boolean isBinarySave(byte[] data) {
+        return data.length >= Integer.BYTES
+                && ((data[0] & 0xFF) << 24 | (data[1] & 0xFF) << 16 | (data[2] & 0xFF) << 8 | (data[3] & 0xFF)) == MAGIC;
+    }
+
+    public static byte[] encode(GameController game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(SEEDED_FORMAT_VERSION);
+            out.writeByte(game.getBoardSize());
+            for (long word : game.getGrid()) out.writeLong(word);
+            out.writeLong(game.getScore());
+            boolean historyFromRecord = game.isHistoryFromRecord();
+            out.writeByte((game.isGameOver() ? FLAG_GAME_OVER : 0)
+                    | (game.hasWon() ? FLAG_HAS_WON : 0)
+                    | (game.isContinuePlaying() ? FLAG_CONTINUE_PLAYING : 0)
+                    | (historyFromRecord ? FLAG_HISTORY_FROM_RECORD : 0)
+                    | (game.isSeeded() ? FLAG_SEEDED : 0));
+            if (game.isSeeded()) {
+                out.writeLong(game.getSeed());
+                out.writeLong(game.getSpawnCount());
+            }
+            writeBlob(out, historyFromRecord ? null : game.getHistoryData());
+            writeBlob(out, game.getRecordData());
+
+            List<HighScore> highScores = game.getHighScores();
+            out.writeShort(highScores.size());
+            for (HighScore highScore : highScores) {
+                out.writeUTF(highScore.getName() == null ? "" : highScore.getName());
+                out.writeLong(highScore.getScore());
+                out.writeUTF(highScore.getDate() == null ? "" : highScore.getDate());
+                writeBlob(out, highScore.getReplay());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory write failed", e); // ByteArrayOutputStream never throws
+        }
+        return bytes.toByteArray();
+    }
+
+    public static GameController decode(byte[] data) throws IOException {
+        DataInputStream in = open(data);
+        byte version = readVersion(in);
+
+        GameController game = new GameController();
+        if (version == FORMAT_VERSION) {
+            game.setPackedBoard(in.readLong());
+        } else {
+            int size = in.readUnsignedByte();
+            if (size < BoardKernel.MIN_SIZE || size > BoardKernel.MAX_SIZE) throw new IOException("Invalid board size " + size);
+            long[] grid = new long[(size * size + 15) / 16];
+            for (int i = 0; i < grid.length; i++) grid[i] = in.readLong();
+            game.setGrid(size, grid);
+        }
+        game.setScore(in.readLong());
+        int flags = in.readByte();
+        game.setGameOver((flags & FLAG_GAME_OVER) != 0);
+        game.setHasWon((flags & FLAG_HAS_WON) != 0);
+        game.setContinuePlaying((flags & FLAG_CONTINUE_PLAYING) != 0);
+        if (version >= SEEDED_FORMAT_VERSION && (flags & FLAG_SEEDED) != 0) {
+            game.setSeedData(in.readLong());
+            game.setSpawnCount(in.readLong());
+        }
+        byte[] history = readBlob(in);
+        game.setRecordData(readBlob(in));
+        if ((flags & FLAG_HISTORY_FROM_RECORD) != 0) {
+            game.setHistoryFromRecord(); // Rebuilt by GameController.decodeSave along with checking the record
+        } else {
+            try {
+                game.setHistoryData(history);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt save history", e);
+            }
+        }
+
+        game.setHighScores(readHighScores(in));
+        return game;
+    }
+
+    //Header Peeks
+
+    // Game-over flag from the header, without decoding the game
+    public static boolean readGameOver(byte[] data) throws IOException {
+        DataInputStream in = open(data);
+        skipBoard(in, readVersion(in));
+        in.readLong(); // Score
+        return (in.readByte() & FLAG_GAME_OVER) != 0;
+    }
+
+    // Legacy high score table, skipping over the game
+    public static List<HighScore> readHighScores(byte[] data) throws IOException {
+        DataInputStream in = open(data);
+        byte version = readVersion(in);
+        skipBoard(in, version);
+        in.readLong(); // Score
+        int flags = in.readByte();
+        if (version >= SEEDED_FORMAT_VERSION && (flags & FLAG_SEEDED) != 0) in.skipNBytes(2 * Long.BYTES);
+        skipBlob(in); // History
+        skipBlob(in); // Record
+        return readHighScores(in);
+    }
+
+    //Sections
+
+    private static DataInputStream open(byte[] data) throws IOException {
+        if (!isBinarySave(data)) throw new IOException("Not a binary save");
+        return new DataInputStream(new ByteArrayInputStream(data));
+    }
+
+    // Reads the magic and version
+    private static byte readVersion(DataInputStream in) throws IOException {
+        in.readInt();
+        byte version = in.readByte();
+        if (version < FORMAT_VERSION || version > SEEDED_FORMAT_VERSION) {
+            throw new IOException("Unsupported save version " + version);
+        }
+        return version;
+    }
+
+    private static void skipBoard(DataInputStream in, byte version) throws IOException {
+        if (version == FORMAT_VERSION) {
+            in.skipNBytes(Long.BYTES);
+            return;
+        }
+        int size = in.readUnsignedByte();
+        if (size < BoardKernel.MIN_SIZE || size > BoardKernel.MAX_SIZE) throw new IOException("Invalid board size " + size);
+        in.skipNBytes((long) (size * size + 15) / 16 * Long.BYTES);
+    }
+
+    private static List<HighScore> readHighScores(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        List<HighScore> highScores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            HighScore highScore = new HighScore();
+            highScore.setName(in.readUTF());
+            highScore.setScore(in.readLong());
+            String date = in.readUTF();
+            highScore.setDate(date.isEmpty() ? null : date);
+            highScore.setReplay(readBlob(in));
+            highScores.add(highScore);
+        }
+        return highScores;
+    }
+
+    // Length-prefixed byte array; -1 encodes null
+    private static void writeBlob(DataOutputStream out, byte[] blob) throws IOException {
+        if (blob == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(blob.length);
+        out.write(blob);
+    }
+
+    private static byte[] readBlob(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        // Checked before allocating, so a corrupt length fails as a corrupt save instead of an OutOfMemoryError
+        if (length > in.available()) throw new IOException("Blob of " + length + " bytes exceeds the save");
+        byte[] blob = new byte[length];
+        in.readFully(blob);
+        return blob;
+    }
+
+    private static void skipBlob(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length > 0) in.skipNBytes(length);
+    }
+}
@@ -0,0 +1,283 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.util.random.RandomGenerator;
+
+// Packed 4x4 board stored in a single long.
+// Each cell is a 4-bit exponent (0 = empty, n = tile 2^n); cell (r, c) lives at nibble r * 4 + c.
+// Moves are applied row by row through precomputed 65536-entry lookup tables, so they never allocate.
+public final class BitBoard {
+
+    public static final int SIZE = 4;
+    public static final int MAX_EXPONENT = 15; // 32768, the largest tile a nibble can hold
+
+    private static final int ROW_COUNT = 1 << 16;
+    private static final long ROW_MASK = 0xFFFFL;
+    private static final long NIBBLE_LOW_BITS = 0x1111111111111111L;
+
+    // Xor deltas: row ^ ROW_LEFT[row] is the row after sliding left
+    private static final char[] ROW_LEFT = new char[ROW_COUNT];
+    private static final char[] ROW_RIGHT = new char[ROW_COUNT];
+    // Same deltas unpacked into column 0 layout, applied to transposed rows
+    private static final long[] COL_UP = new long[ROW_COUNT];
+    private static final long[] COL_DOWN = new long[ROW_COUNT];
+    // Points gained by merging a row; identical for both directions
+    private static final int[] ROW_SCORE = new int[ROW_COUNT];
+
+    static {
+        int[] line = new int[SIZE];
+        for (int row = 0; row < ROW_COUNT; row++) {
+            int score = 0;
+            int target = 0;
+            int pending = 0;
+
+            // Slide non-zero exponents left, merging each pair once
+            for (int c = 0; c < SIZE; c++) {
+                int value = (row >>> (c * 4)) & 0xF;
+                if (value == 0) continue;
+                if (pending == value && value < MAX_EXPONENT) {
+                    line[target++] = value + 1;
+                    score += 1 << (value + 1);
+                    pending = 0;
+                } else {
+                    if (pending != 0) line[target++] = pending;
+                    pending = value;
+                }
+            }
+            if (pending != 0) line[target++] = pending;
+            while (target < SIZE) line[target++] = 0;
+
+            int result = line[0] | (line[1] << 4) | (line[2] << 8) | (line[3] << 12);
+            int reversedRow = reverseRow(row);
+            int leftDelta = row ^ result;
+            int rightDelta = reversedRow ^ reverseRow(result);
+
+            ROW_LEFT[row] = (char) leftDelta;
+            ROW_RIGHT[reversedRow] = (char) rightDelta;
+            COL_UP[row] = unpackColumn(leftDelta);
+            COL_DOWN[reversedRow] = unpackColumn(rightDelta);
+            ROW_SCORE[row] = score;
+        }
+    }
+
+    private BitBoard() {}
+
+    //Moves
+
+    // Returns the board after sliding in the given direction (unchanged if the move is illegal)
+    public static long move(long board, Direction direction) {
+        return switch (direction) {
+            case UP -> moveUp(board);
+            case DOWN -> moveDown(board);
+            case LEFT -> moveLeft(board);
+            case RIGHT -> moveRight(board);
+        };
+    }
+
+    // Points scored by merges when sliding in the given direction
+    public static int scoreDelta(long board, Direction direction) {
+        long rows = (direction == Direction.UP || direction == Direction.DOWN) ? transpose(board) : board;
+        return ROW_SCORE[(int) (rows & ROW_MASK)]
+                + ROW_SCORE[(int) ((rows >>> 16) & ROW_MASK)]
+                + ROW_SCORE[(int) ((rows >>> 32) & ROW_MASK)]
+                + ROW_SCORE[(int) ((rows >>> 48) & ROW_MASK)];
+    }
+
+    public static long moveLeft(long board) {
+        return board
+                ^ ((long) ROW_LEFT[(int) (board & ROW_MASK)])
+                ^ ((long) ROW_LEFT[(int) ((board >>> 16) & ROW_MASK)] << 16)
+                ^ ((long) ROW_LEFT[(int) ((board >>> 32) & ROW_MASK)] << 32)
+                ^ ((long) ROW_LEFT[(int) ((board >>> 48) & ROW_MASK)] << 48);
+    }
+
+    public static long moveRight(long board) {
+        return board
+                ^ ((long) ROW_RIGHT[(int) (board & ROW_MASK)])
+                ^ ((long) ROW_RIGHT[(int) ((board >>> 16) & ROW_MASK)] << 16)
+                ^ ((long) ROW_RIGHT[(int) ((board >>> 32) & ROW_MASK)] << 32)
+                ^ ((long) ROW_RIGHT[(int) ((board >>> 48) & ROW_MASK)] << 48);
+    }
+
+    public static long moveUp(long board) {
+        long t = transpose(board);
+        return board
+                ^ COL_UP[(int) (t & ROW_MASK)]
+                ^ (COL_UP[(int) ((t >>> 16) & ROW_MASK)] << 4)
+                ^ (COL_UP[(int) ((t >>> 32) & ROW_MASK)] << 8)
+                ^ (COL_UP[(int) ((t >>> 48) & ROW_MASK)] << 12);
+    }
+
+    public static long moveDown(long board) {
+        long t = transpose(board);
+        return board
+                ^ COL_DOWN[(int) (t & ROW_MASK)]
+                ^ (COL_DOWN[(int) ((t >>> 16) & ROW_MASK)] << 4)
+                ^ (COL_DOWN[(int) ((t >>> 32) & ROW_MASK)] << 8)
+                ^ (COL_DOWN[(int) ((t >>> 48) & ROW_MASK)] << 12);
+    }
+
+    // True if some cell holds exactly 2^exponent
+    public static boolean containsExponent(long board, int exponent) {
+        return emptyMask(board ^ (NIBBLE_LOW_BITS * exponent)) != 0;
+    }
+
+    // Score of a board whose tiles were all built from spawned 2s: a merge into 2^e scores 2^e, so a tile 2^e is
+    // worth (e - 1) * 2^e. Every spawned 4 on the way scores 4 less than this.
+    public static long tileScore(long board) {
+        long score = 0;
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            int exponent = (int) ((board >>> (i * 4)) & 0xF);
+            if (exponent > 1) score += (long) (exponent - 1) << exponent;
+        }
+        return score;
+    }
+
+    //Board Queries
+
+    // A full board with no horizontal or vertical merges left
+    public static boolean isGameOver(long board) {
+        return countEmpty(board) == 0 && moveLeft(board) == board && moveUp(board) == board;
+    }
+
+    // One bit set (at the low bit of each nibble) for every empty cell
+    public static long emptyMask(long board) {
+        long x = board | ((board >>> 2) & 0x3333333333333333L);
+        x |= x >>> 1;
+        return ~x & NIBBLE_LOW_BITS;
+    }
+
+    public static int countEmpty(long board) {
+        return Long.bitCount(emptyMask(board));
+    }
+
+    // Places a 2 (90%) or 4 (10%) on a uniformly chosen empty cell; returns the board unchanged if it is full.
+    // Draws exactly one nextLong() per call, so a generator's position is just the number of spawns.
+    public static long spawnRandom(long board, RandomGenerator random) {
+        return spawnTile(board, random.nextLong());
+    }
+
+    // Spawn chosen by 64 random bits: the high half picks the empty cell, the low half the tile value
+    public static long spawnTile(long board, long bits) {
+        long empty = emptyMask(board);
+        int emptyCount = Long.bitCount(empty);
+        if (emptyCount == 0) return board;
+
+        // Drop the lowest set bits until the chosen one is lowest
+        for (int skip = pickIndex(bits, emptyCount); skip > 0; skip--) {
+            empty &= empty - 1;
+        }
+        long tile = Long.lowestOneBit(empty);
+        return board | (isFour(bits) ? tile << 1 : tile);
+    }
+
+    // Uniform index below `bound` from the high 32 bits (multiply-shift, no division)
+    static int pickIndex(long bits, int bound) {
+        return (int) (((bits >>> 32) * bound) >>> 32);
+    }
+
+    // True with probability 1/10, from the low 32 bits
+    static boolean isFour(long bits) {
+        return ((bits & 0xFFFFFFFFL) * 10 >>> 32) == 0;
+    }
+
+    public static int maxExponent(long board) {
+        int max = 0;
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            max = Math.max(max, (int) ((board >>> (i * 4)) & 0xF));
+        }
+        return max;
+    }
+
+    public static int getExponent(long board, int row, int col) {
+        return (int) ((board >>> ((row * SIZE + col) * 4)) & 0xF);
+    }
+
+    public static long setExponent(long board, int row, int col, int exponent) {
+        int shift = (row * SIZE + col) * 4;
+        return (board & ~(0xFL << shift)) | ((long) exponent << shift);
+    }
+
+    public static int tileValue(int exponent) {
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+
+    //Conversion
+
+    // Packs a board of tile values (0, 2, 4, ...) into exponent nibbles
+    public static long fromArray(int[][] tiles) {
+        long board = 0;
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                board = setExponent(board, r, c, toExponent(tiles[r][c]));
+            }
+        }
+        return board;
+    }
+
+    public static int[][] toArray(long board) {
+        int[][] tiles = new int[SIZE][SIZE];
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                tiles[r][c] = tileValue(getExponent(board, r, c));
+            }
+        }
+        return tiles;
+    }
+
+    public static int toExponent(int value) {
+        if (value == 0) return 0;
+        int exponent = Integer.numberOfTrailingZeros(value);
+        if (value != (1 << exponent) || exponent < 1 || exponent > MAX_EXPONENT) {
+            throw new IllegalArgumentException("Invalid tile value: " + value);
+        }
+        return exponent;
+    }
+
+    //Bit Helpers
+
+    // Swaps rows and columns: nibble r * 4 + c moves to c * 4 + r
+    public static long transpose(long x) {
+        long a1 = x & 0xF0F00F0FF0F00F0FL;
+        long a2 = x & 0x0000F0F00000F0F0L;
+        long a3 = x & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    // Reverses the order of rows (top <-> bottom)
+    public static long mirrorRows(long x) {
+        x = (x >>> 32) | (x << 32);
+        return ((x >>> 16) & 0x0000FFFF0000FFFFL) | ((x & 0x0000FFFF0000FFFFL) << 16);
+    }
+
+    // Reverses the cells within each row (left <-> right)
+    public static long mirrorColumns(long x) {
+        x = ((x >>> 8) & 0x00FF00FF00FF00FFL) | ((x & 0x00FF00FF00FF00FFL) << 8);
+        return ((x >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((x & 0x0F0F0F0F0F0F0F0FL) << 4);
+    }
+
+    // Smallest of the 8 rotations/reflections, so symmetric positions share one key
+    public static long canonical(long board) {
+        long h = mirrorColumns(board);
+        long v = mirrorRows(board);
+        long hv = mirrorRows(h);
+        long min = Math.min(Math.min(board, h), Math.min(v, hv));
+        min = Math.min(min, Math.min(transpose(board), transpose(h)));
+        return Math.min(min, Math.min(transpose(v), transpose(hv)));
+    }
+
+    private static int reverseRow(int row) {
+        return ((row & 0xF) << 12) | ((row & 0xF0) << 4) | ((row >>> 4) & 0xF0) | ((row >>> 12) & 0xF);
+    }
+
+    // Spreads the four nibbles of a row down column 0
+    private static long unpackColumn(int row) {
+        long r = row & ROW_MASK;
+        return (r & 0xFL) | ((r & 0xF0L) << 12) | ((r & 0xF00L) << 24) | ((r & 0xF000L) << 36);
+    }
+}
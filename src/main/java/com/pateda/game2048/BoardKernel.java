@@ -0,0 +1,119 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.util.random.RandomGenerator;
+
+// Move engine for an N x N board, N from MIN_SIZE to MAX_SIZE.
+// Boards are nibble-packed exponents in a long[]: cell i = r * N + c lives in word i / 16, nibble i % 16,
+// so a board takes ceil(N * N / 16) words (one for 3x3 and 4x4, four for 8x8).
+// Each size gets the kernel that suits it: lookup tables on a single long for small boards,
+// plain row loops over a byte scratch buffer for large ones. Kernels keep scratch state, so use one per thread.
+public abstract class BoardKernel {
+
+    public static final int MIN_SIZE = 3;
+    public static final int MAX_SIZE = 8;
+
+    protected final int size;
+    protected final int cells;
+    protected final int words;
+    private final long[] probe; // Target for the trial moves of isGameOver
+
+    protected BoardKernel(int size) {
+        this.size = size;
+        this.cells = size * size;
+        this.words = (cells + 15) / 16;
+        this.probe = new long[words];
+    }
+
+    public static BoardKernel forSize(int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between " + MIN_SIZE + " and " + MAX_SIZE + ": " + size);
+        }
+        return size <= BitBoard.SIZE ? new PackedBoardKernel(size) : new RowBoardKernel(size);
+    }
+
+    public int size() { return size; }
+    public int words() { return words; }
+
+    public long[] newBoard() {
+        return new long[words];
+    }
+
+    //Moves
+
+    // Writes the board after sliding into `out` and returns the points scored, or -1 if nothing moves.
+    // `out` must not be `board`.
+    public abstract int move(long[] board, Direction direction, long[] out);
+
+    public boolean isGameOver(long[] board) {
+        if (countEmpty(board) > 0) return false;
+        return move(board, Direction.LEFT, probe) < 0 && move(board, Direction.UP, probe) < 0;
+    }
+
+    //Queries
+
+    public int countEmpty(long[] board) {
+        int empty = 0;
+        for (int i = 0; i < cells; i++) {
+            if (get(board, i) == 0) empty++;
+        }
+        return empty;
+    }
+
+    public int maxExponent(long[] board) {
+        int max = 0;
+        for (int i = 0; i < cells; i++) max = Math.max(max, get(board, i));
+        return max;
+    }
+
+    // Places a 2 (90%) or 4 (10%) in a random empty cell, in place; no-op on a full board.
+    // Like BitBoard.spawnRandom, draws exactly one nextLong() per call. Returns the cell, or -1 if the board is full
+    public int spawnRandom(long[] board, RandomGenerator random) {
+        int empty = countEmpty(board);
+        if (empty == 0) return -1;
+        long bits = random.nextLong();
+        int target = BitBoard.pickIndex(bits, empty);
+        int exponent = BitBoard.isFour(bits) ? 2 : 1;
+        for (int i = 0; i < cells; i++) {
+            if (get(board, i) == 0 && target-- == 0) {
+                set(board, i, exponent);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //Conversion
+
+    public long[] fromArray(int[][] tiles) {
+        long[] board = newBoard();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                set(board, r * size + c, BitBoard.toExponent(tiles[r][c]));
+            }
+        }
+        return board;
+    }
+
+    public int[][] toArray(long[] board) {
+        int[][] tiles = new int[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                tiles[r][c] = BitBoard.tileValue(get(board, r * size + c));
+            }
+        }
+        return tiles;
+    }
+
+    //Cell Access
+
+    static int get(long[] board, int cell) {
+        return (int) (board[cell >>> 4] >>> ((cell & 15) * 4)) & 0xF;
+    }
+
+    static void set(long[] board, int cell, int exponent) {
+        int shift = (cell & 15) * 4;
+        board[cell >>> 4] = (board[cell >>> 4] & ~(0xFL << shift)) | ((long) exponent << shift);
+    }
+}
@@ -0,0 +1,334 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+// Expectimax search over packed boards with iterative deepening inside a time budget.
+// Root moves and the first chance layer are split into fork/join tasks; deeper levels run sequentially per task.
+public class ExpectimaxSearch implements Strategy {
+
+    // Row heuristic weights (empty cells, merges, monotonicity, tile mass)
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final double LOST_PENALTY = 200_000;
+    private static final double MONOTONICITY_POWER = 4;
+    private static final double MONOTONICITY_WEIGHT = 47;
+    private static final double SUM_POWER = 3.5;
+    private static final double SUM_WEIGHT = 11;
+    private static final double MERGES_WEIGHT = 700;
+    private static final double EMPTY_WEIGHT = 270;
+
+    // Chance branches less likely than this are evaluated instead of expanded
+    private static final double MIN_PROBABILITY = 0.0001;
+    private static final int DEADLINE_CHECK_MASK = 1023;
+
+    private static final float[] ROW_HEURISTIC = new float[1 << 16];
+
+    static {
+        int[] line = new int[BitBoard.SIZE];
+        for (int row = 0; row < ROW_HEURISTIC.length; row++) {
+            for (int c = 0; c < BitBoard.SIZE; c++) line[c] = (row >>> (c * 4)) & 0xF;
+
+            double sum = 0;
+            int empty = 0;
+            int merges = 0;
+            int previous = 0;
+            int counter = 0;
+            for (int rank : line) {
+                sum += Math.pow(rank, SUM_POWER);
+                if (rank == 0) {
+                    empty++;
+                } else {
+                    if (previous == rank) {
+                        counter++;
+                    } else if (counter > 0) {
+                        merges += 1 + counter;
+                        counter = 0;
+                    }
+                    previous = rank;
+                }
+            }
+            if (counter > 0) merges += 1 + counter;
+
+            double monotonicityLeft = 0;
+            double monotonicityRight = 0;
+            for (int i = 1; i < BitBoard.SIZE; i++) {
+                double before = Math.pow(line[i - 1], MONOTONICITY_POWER);
+                double after = Math.pow(line[i], MONOTONICITY_POWER);
+                if (line[i - 1] > line[i]) monotonicityLeft += before - after;
+                else monotonicityRight += after - before;
+            }
+
+            ROW_HEURISTIC[row] = (float) (LOST_PENALTY + EMPTY_WEIGHT * empty + MERGES_WEIGHT * merges
+                    - MONOTONICITY_WEIGHT * Math.min(monotonicityLeft, monotonicityRight) - SUM_WEIGHT * sum);
+        }
+    }
+
+    private final int maxDepth;
+    private final long timeBudgetNanos; // 0 = no time limit, search to maxDepth
+    private final ForkJoinPool pool;    // null = run in the caller's pool (or the common pool)
+    private final TranspositionTable table; // null = no caching
+
+    // Outcome of one search; depth is the deepest fully completed iteration
+    public record SearchResult(Direction move, int depth, long nodes, long nanos, double cacheHitRate) implements MoveAdvice {
+        public double nodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+        }
+
+        @Override
+        public String summary() {
+            return String.format("depth %d, %.1fM nodes/s, cache %.0f%% hits", depth, nodesPerSecond() / 1e6, cacheHitRate * 100);
+        }
+    }
+
+    public ExpectimaxSearch(int maxDepth, long timeBudget, TimeUnit unit, ForkJoinPool pool) {
+        this(maxDepth, timeBudget, unit, pool, null);
+    }
+
+    public ExpectimaxSearch(int maxDepth, long timeBudget, TimeUnit unit, ForkJoinPool pool, TranspositionTable table) {
+        this.maxDepth = maxDepth;
+        this.timeBudgetNanos = unit.toNanos(timeBudget);
+        this.pool = pool;
+        this.table = table;
+    }
+
+    public TranspositionTable getTable() { return table; }
+
+    // Deterministic fixed-depth search for headless runs; forks into whatever pool calls it
+    public static ExpectimaxSearch fixedDepth(int depth) {
+        return new ExpectimaxSearch(depth, 0, TimeUnit.NANOSECONDS, null);
+    }
+
+    @Override
+    public Direction chooseMove(long board, RandomGenerator random) {
+        return search(board).move();
+    }
+
+    // Runs the search off the caller's thread, e.g. to keep the FX thread free
+    public CompletableFuture<SearchResult> searchAsync(long board) {
+        return CompletableFuture.supplyAsync(() -> search(board), pool != null ? pool : ForkJoinPool.commonPool());
+    }
+
+    public SearchResult search(long board) {
+        long start = System.nanoTime();
+        long deadline = timeBudgetNanos > 0 ? start + timeBudgetNanos : Long.MAX_VALUE;
+        LongAdder nodes = new LongAdder();
+        if (table != null) table.newSearch();
+
+        Direction bestMove = Strategy.firstLegal(board, DIRECTIONS);
+        int completedDepth = 0;
+
+        for (int depth = 1; depth <= maxDepth && bestMove != null; depth++) {
+            // Depth 1 always completes so there is a reasoned move even on a tight budget
+            SearchContext context = new SearchContext(depth == 1 ? Long.MAX_VALUE : deadline, nodes, table);
+            RootTask root = new RootTask(board, depth, context);
+            Direction move = (pool == null || ForkJoinTask.inForkJoinPool()) ? root.invoke() : pool.invoke(root);
+
+            if (context.aborted) break;
+            if (move != null) bestMove = move;
+            completedDepth = depth;
+            if (System.nanoTime() >= deadline) break;
+        }
+        return new SearchResult(bestMove, completedDepth, nodes.sum(), System.nanoTime() - start,
+                table != null ? table.hitRate() : 0);
+    }
+
+    //Evaluation
+
+    public static double evaluate(long board) {
+        return rowHeuristic(board) + rowHeuristic(BitBoard.transpose(board));
+    }
+
+    private static double rowHeuristic(long rows) {
+        return ROW_HEURISTIC[(int) (rows & 0xFFFF)]
+                + ROW_HEURISTIC[(int) ((rows >>> 16) & 0xFFFF)]
+                + ROW_HEURISTIC[(int) ((rows >>> 32) & 0xFFFF)]
+                + ROW_HEURISTIC[(int) ((rows >>> 48) & 0xFFFF)];
+    }
+
+    //Search Tasks
+
+    // Per-iteration state shared by all tasks of that iteration
+    private static final class SearchContext {
+        final long deadline;
+        final LongAdder nodes;
+        final TranspositionTable table;
+        volatile boolean aborted;
+
+        SearchContext(long deadline, LongAdder nodes, TranspositionTable table) {
+            this.deadline = deadline;
+            this.nodes = nodes;
+            this.table = table;
+        }
+    }
+
+    // Sequential expectimax below the split points; counts nodes locally and reports once
+    private static class Searcher {
+        final SearchContext context;
+        long nodes;
+
+        Searcher(SearchContext context) {
+            this.context = context;
+        }
+
+        double maxNode(long board, int depth, double probability) {
+            if (context.aborted) return 0;
+            if ((++nodes & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > context.deadline) {
+                context.aborted = true;
+                return 0;
+            }
+
+            double best = 0;
+            for (Direction direction : DIRECTIONS) {
+                long moved = BitBoard.move(board, direction);
+                if (moved != board) best = Math.max(best, chanceNode(moved, depth, probability));
+            }
+            return best;
+        }
+
+        double chanceNode(long board, int depth, double probability) {
+            if (context.aborted) return 0;
+            nodes++;
+            if (depth <= 0 || probability < MIN_PROBABILITY) return evaluate(board);
+
+            TranspositionTable table = context.table;
+            if (table != null) {
+                double cached = table.get(board, depth);
+                if (!Double.isNaN(cached)) return cached;
+            }
+
+            long empty = BitBoard.emptyMask(board);
+            int emptyCount = Long.bitCount(empty);
+            double cellProbability = probability / emptyCount;
+            double sum = 0;
+            while (empty != 0) {
+                long tile = empty & -empty;
+                empty ^= tile;
+                sum += spawnValue(board, tile, depth, cellProbability);
+            }
+            double value = sum / emptyCount;
+
+            // Values from an aborted iteration are incomplete and must not be cached
+            if (table != null && !context.aborted) table.put(board, depth, value);
+            return value;
+        }
+
+        // Expected value of one empty cell receiving a 2 (90%) or a 4 (10%)
+        double spawnValue(long board, long tile, int depth, double cellProbability) {
+            return 0.9 * maxNode(board | tile, depth - 1, cellProbability * 0.9)
+                    + 0.1 * maxNode(board | (tile << 1), depth - 1, cellProbability * 0.1);
+        }
+
+        void report() {
+            context.nodes.add(nodes);
+        }
+    }
+
+    // Evaluates every legal root move in parallel and returns the best one
+    private static final class RootTask extends RecursiveTask<Direction> {
+        private final long board;
+        private final int depth;
+        private final SearchContext context;
+
+        RootTask(long board, int depth, SearchContext context) {
+            this.board = board;
+            this.depth = depth;
+            this.context = context;
+        }
+
+        @Override
+        protected Direction compute() {
+            List<Direction> moves = new ArrayList<>(DIRECTIONS.length);
+            List<ChanceTask> tasks = new ArrayList<>(DIRECTIONS.length);
+            for (Direction direction : DIRECTIONS) {
+                long moved = BitBoard.move(board, direction);
+                if (moved == board) continue;
+                moves.add(direction);
+                tasks.add(new ChanceTask(moved, depth, context));
+            }
+            invokeAll(tasks);
+
+            Direction best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < tasks.size(); i++) {
+                double value = tasks.get(i).join();
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = moves.get(i);
+                }
+            }
+            return best;
+        }
+    }
+
+    // First chance layer: one subtask per empty cell
+    private static final class ChanceTask extends RecursiveTask<Double> {
+        private final long board;
+        private final int depth;
+        private final SearchContext context;
+
+        ChanceTask(long board, int depth, SearchContext context) {
+            this.board = board;
+            this.depth = depth;
+            this.context = context;
+        }
+
+        @Override
+        protected Double compute() {
+            if (depth <= 1) {
+                Searcher searcher = new Searcher(context);
+                double value = searcher.chanceNode(board, depth, 1.0);
+                searcher.report();
+                return value;
+            }
+
+            long empty = BitBoard.emptyMask(board);
+            int emptyCount = Long.bitCount(empty);
+            double cellProbability = 1.0 / emptyCount;
+            List<CellTask> cells = new ArrayList<>(emptyCount);
+            while (empty != 0) {
+                long tile = empty & -empty;
+                empty ^= tile;
+                cells.add(new CellTask(board, tile, depth, cellProbability, context));
+            }
+            invokeAll(cells);
+
+            double sum = 0;
+            for (CellTask cell : cells) sum += cell.join();
+            context.nodes.increment();
+            return sum / emptyCount;
+        }
+    }
+
+    private static final class CellTask extends RecursiveTask<Double> {
+        private final long board;
+        private final long tile;
+        private final int depth;
+        private final double cellProbability;
+        private final SearchContext context;
+
+        CellTask(long board, long tile, int depth, double cellProbability, SearchContext context) {
+            this.board = board;
+            this.tile = tile;
+            this.depth = depth;
+            this.cellProbability = cellProbability;
+            this.context = context;
+        }
+
+        @Override
+        protected Double compute() {
+            Searcher searcher = new Searcher(context);
+            double value = searcher.spawnValue(board, tile, depth, cellProbability);
+            searcher.report();
+            return value;
+        }
+    }
+}
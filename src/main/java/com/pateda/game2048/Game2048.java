@@ -1,13 +1,13 @@
 package com.pateda.game2048;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 public class Game2048 extends Application {
 
@@ -17,38 +17,83 @@ public class Game2048 extends Application {
     // Tracks the current visual theme application-wide
     private static boolean isDarkTheme = false;
 
+    // Startup training run (used to record the AppCDS archive): quit once startup has finished
+    private static final boolean EXIT_AFTER_STARTUP = Boolean.getBoolean("game2048.exitAfterStartup");
+
+    private SceneManager sceneManager;
+
     @Override
     public void start(Stage stage) throws IOException {
-        // Load the initial view (Main Menu)
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/pateda/game2048/main-menu.fxml"));
-        Parent root = loader.load();
+        StartupTimer.mark("Game2048.start");
 
-        // Pass stage reference to controller for scene switching
-        SceneController sceneController = loader.getController();
-        sceneController.setStage(stage);
+        // Load the initial view (Main Menu); the other views are preloaded in the background
+        sceneManager = new SceneManager(stage);
 
-        // Set application icon
-        Image iconImage = new Image(getClass().getResourceAsStream("/com/pateda/game2048/logo.png"));
+        // Set application icon, decoded in the background
+        Image iconImage = new Image(getClass().getResource("/com/pateda/game2048/logo.png").toExternalForm(), true);
         stage.getIcons().add(iconImage);
 
-        // Initialize scene and apply default/saved theme
-        Scene scene = new Scene(root, 800, 800);
-        applyTheme(scene);
-
         // Save active game state when user closes the window
         stage.setOnCloseRequest(event -> {
+            SceneController.stopActiveEngine();
             GameController gameToSave = SceneController.getActiveGameInstance();
             if (gameToSave != null) {
-                gameToSave.saveGame(GameController.getSaveFile());
-                System.out.println("Game state saved on application exit.");
+                gameToSave.saveGameAsync(GameController.getSaveFile());
+                System.out.println("Game state queued for saving on application exit.");
             }
         });
 
-        stage.setTitle("2048");
-        stage.setScene(scene);
+        stage.setTitle(SceneController.menuTitle());
+        stage.setScene(sceneManager.getScene());
+        sceneManager.getController(SceneManager.View.MAIN_MENU).onMenuShown();
+        sceneManager.getScene().addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                sceneManager.getScene().removePostLayoutPulseListener(this);
+                onFirstFrame();
+            }
+        });
         stage.show();
     }
 
+    // The menu is on screen; read the save and open the leaderboard off the FX thread before the player needs them
+    private void onFirstFrame() {
+        StartupTimer.markFirstFrame();
+        CompletableFuture<Void> saveLoaded = new CompletableFuture<>();
+        Thread loader = new Thread(() -> {
+            try {
+                SaveRepository.getDefault().hasGameInProgress(); // Parses and caches the save
+                Leaderboard.getDefault();
+                StartupTimer.mark("Save loaded");
+            } catch (RuntimeException e) {
+                System.err.println("Error preloading save: " + e.getMessage()); // Retried when the menu needs it
+            } finally {
+                saveLoaded.complete(null);
+            }
+            Metrics.register(); // Loads JMX, so kept off the first-frame path
+        }, "save-preloader");
+        loader.setDaemon(true);
+        loader.start();
+
+        if (StartupTimer.TRACE || EXIT_AFTER_STARTUP) {
+            CompletableFuture.allOf(saveLoaded, sceneManager.preloaded()).thenRun(() -> {
+                System.out.println(StartupTimer.summary());
+                if (EXIT_AFTER_STARTUP) Platform.runLater(Platform::exit);
+            });
+        }
+    }
+
+    // Runs on exit (window close or Platform.exit); waits for queued saves to reach the disk
+    @Override
+    public void stop() {
+        SaveService saves = SaveService.getDefault();
+        saves.shutdown();
+        System.out.println(saves.summary());
+        if (sceneManager != null) System.out.println(sceneManager.summary());
+        if (Metrics.ENABLED) System.out.println(Metrics.summary());
+        Leaderboard.closeDefault();
+    }
+
     // Switches between Light and Dark modes and refreshes the scene
     public static void toggleTheme(Scene scene) {
         isDarkTheme = !isDarkTheme;
@@ -59,12 +104,20 @@ public class Game2048 extends Application {
     public static void applyTheme(Scene scene) {
         if (scene == null) return;
 
+        GameEvents.ThemeSwitch event = new GameEvents.ThemeSwitch();
+        event.begin();
         scene.getStylesheets().clear();
         if (isDarkTheme) {
             scene.getStylesheets().add(Game2048.class.getResource(DARK_THEME_CSS).toExternalForm());
         } else {
             scene.getStylesheets().add(Game2048.class.getResource(DEFAULT_CSS).toExternalForm());
         }
+        if (event.isEnabled()) {
+            // Restyle now rather than on the next pulse, so the event covers the CSS work of the switch
+            if (scene.getRoot() != null) scene.getRoot().applyCss();
+            event.dark = isDarkTheme;
+            event.commit();
+        }
     }
 
     public static boolean isDarkTheme() {
@@ -72,6 +125,9 @@ public class Game2048 extends Application {
     }
 
     public static void main(String[] args) {
+        StartupTimer.mark("main");
+        // Metrics are on for the desktop game unless -Dgame2048.metrics=false; headless tools leave them off
+        if (System.getProperty("game2048.metrics") == null) System.setProperty("game2048.metrics", "true");
         launch();
     }
 }
\ No newline at end of file
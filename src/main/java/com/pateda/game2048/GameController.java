@@ -1,86 +1,299 @@
 package com.pateda.game2048;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 
+// The board size comes from gameBoard, so it must be read before the history
+@JsonPropertyOrder({"gameBoard", "score"})
 public class GameController {
 
-    private static final int BOARD_SIZE = 4;
-    private static final int HISTORY_LIMIT = 1; // Depth of undo history
-    private static final int WINNING_TILE_VALUE = 2048;
+    private static final int WINNING_EXPONENT = GameState.WINNING_EXPONENT;
 
     // Define save file location in user's home directory
     private static final String SAVE_FILE;
+    private static final String LEGACY_SAVE_FILE; // JSON save written by older versions
     static {
-        SAVE_FILE = System.getProperty("user.home") + File.separator + "2048_save.json";
+        SAVE_FILE = System.getProperty("user.home") + File.separator + "2048_save.dat";
+        LEGACY_SAVE_FILE = System.getProperty("user.home") + File.separator + "2048_save.json";
+    }
+
+    // Binary by default; run with -Dgame2048.saveFormat=json for human-readable saves
+    private static final SaveFormat DEFAULT_SAVE_FORMAT =
+            SaveFormat.valueOf(System.getProperty("game2048.saveFormat", "binary").toUpperCase());
+
+    // Jackson is only set up the first time a JSON save is read or written (holder class is loaded on first use)
+    private static final class Json {
+        static final ObjectMapper MAPPER = new ObjectMapper();
+        static final ObjectWriter WRITER = MAPPER.writerWithDefaultPrettyPrinter();
     }
 
     //Game State Fields
-    private int[][] gameBoard;
+    private long board; // Packed exponents, see BitBoard (4x4 only)
     private long score;
     private boolean isGameOver;
     private boolean hasWon;
     private boolean continuePlaying;
-    private List<HighScore> highScores;
+    private List<HighScore> highScores; // Legacy table from older saves, imported into the Leaderboard
+
+    // Tile spawns draw one nextLong() each from `random`. Seeded games use a SplittableRandom(seed), so the
+    // generator is fully described by (seed, spawnCount) and is rebuilt from those after loading a save.
+    @JsonIgnore
+    private RandomGenerator random;
+    @JsonIgnore
+    private long seed; // Also kept in the game record
+    @JsonIgnore
+    private boolean seeded; // False for a caller-supplied generator, whose state cannot be saved
+    private long spawnCount;
+    private boolean randomStale; // spawnCount moved with an undo or redo; rebuild `random` before the next spawn
+
+    // Other board sizes run on a BoardKernel over `grid`; 4x4 keeps the single-long fast path in `board`
+    @JsonIgnore
+    private int size = BitBoard.SIZE;
+    @JsonIgnore
+    private BoardKernel kernel; // null for 4x4
+    @JsonIgnore
+    private long[] grid;
+    @JsonIgnore
+    private long[] movedGrid; // Scratch target for kernel moves, swapped with grid
 
+    // Compact move log of the current game, used for replays and high score verification (4x4 only)
     @JsonIgnore
-    private final Random random;
+    private GameRecord gameRecord;
+    // The record starts at this game's seeded opening, so the leaderboard can check it; a game whose record had to be
+    // restarted from an arbitrary board (set directly, loaded without a valid record, undone past the start) is not
+    private boolean rankable;
 
-    //History for Undo
-    private List<int[][]> boardHistory;
-    private List<Long> scoreHistory;
+    //History for Undo/Redo (whole game)
+    @JsonIgnore
+    private MoveHistory moveHistory;
+
+    private int historyLimit = Integer.MAX_VALUE; // Undo steps kept; the whole game unless set
+    // The undo history is exactly what replaying the record (with its redo tail) gives, so binary saves leave it out.
+    // Kept up to date by moves, undo and redo, and cleared by anything that changes one without the other
+    private boolean historyFromRecord;
+
+    // Legacy saves stored undo states as parallel nested-array lists; held until both have been read
+    @JsonIgnore
+    private List<int[][]> legacyBoardHistory;
+    @JsonIgnore
+    private List<Long> legacyScoreHistory;
+
+    // Immutable copy of board, score and flags, built by getState() and kept until the next change
+    private GameState state;
+    private boolean stateStale = true;
 
     public enum Direction { UP, DOWN, LEFT, RIGHT }
+    public enum SaveFormat { JSON, BINARY }
 
     // Constructor initializes a fresh game state
     public GameController() {
-        this.random = new Random();
-        this.gameBoard = new int[BOARD_SIZE][BOARD_SIZE];
+        this(BitBoard.SIZE);
+    }
+
+    // New game on a size x size board, BoardKernel.MIN_SIZE to BoardKernel.MAX_SIZE
+    public GameController(int size) {
+        this(ThreadLocalRandom.current().nextLong(), size);
+    }
+
+    // Reproducible game: the same seed and moves always give the same spawns, also across save and load
+    public GameController(long seed, int size) {
+        this(new SplittableRandom(seed), seed, true, size);
+    }
+
+    // Uses the given generator for tile spawns as is; it is not saved, so a loaded copy continues on a fresh seed
+    public GameController(RandomGenerator random) {
+        this(random, BitBoard.SIZE);
+    }
+
+    public GameController(RandomGenerator random, int size) {
+        this(random, 0, false, size);
+    }
+
+    private GameController(RandomGenerator random, long seed, boolean seeded, int size) {
+        this.random = random;
+        this.seed = seed;
+        this.seeded = seeded;
         this.score = 0;
         this.isGameOver = false;
         this.hasWon = false;
         this.continuePlaying = false;
-        this.boardHistory = new ArrayList<>();
-        this.scoreHistory = new ArrayList<>();
         this.highScores = new ArrayList<>();
 
+        setBoardSize(size);
         initializeBoard();
+        stateChanged();
+    }
+
+    // Switches kernels and starts an empty history sized for the new board
+    private void setBoardSize(int size) {
+        this.size = size;
+        if (size == BitBoard.SIZE) {
+            kernel = null;
+            grid = null;
+            movedGrid = null;
+        } else {
+            kernel = BoardKernel.forSize(size);
+            grid = kernel.newBoard();
+            movedGrid = kernel.newBoard();
+        }
+        moveHistory = new MoveHistory(kernel == null ? 1 : kernel.words(), historyLimit);
     }
 
     //Serialization Accessors
 
+    // Tile-value view of the packed board; changes to the returned array are not written back
     @JsonProperty("gameBoard")
-    public int[][] getBoard() { return gameBoard; }
+    public int[][] getBoard() { return kernel == null ? BitBoard.toArray(board) : kernel.toArray(grid); }
 
+    // The board size follows the array; changing it clears the undo history
     @JsonAlias("board")
-    public void setGameBoard(int[][] gameBoard) { this.gameBoard = gameBoard; }
+    public void setGameBoard(int[][] gameBoard) {
+        if (gameBoard.length != size) setBoardSize(gameBoard.length);
+        historyFromRecord = false;
+        if (kernel == null) {
+            this.board = BitBoard.fromArray(gameBoard);
+        } else {
+            this.grid = kernel.fromArray(gameBoard);
+        }
+        stateChanged();
+    }
+
+    @JsonIgnore
+    public int getBoardSize() { return size; }
+
+    // 4x4 board; 0 for other sizes, see getGrid()
+    @JsonIgnore
+    public long getPackedBoard() { return board; }
+    public void setPackedBoard(long board) {
+        if (size != BitBoard.SIZE) setBoardSize(BitBoard.SIZE);
+        this.board = board;
+        resetRecord();
+        stateChanged();
+    }
+
+    // Copy of the packed board of any size (a single word for 4x4), in BoardKernel layout
+    @JsonIgnore
+    public long[] getGrid() { return kernel == null ? new long[] { board } : grid.clone(); }
+
+    public void setGrid(int size, long[] packed) {
+        if (size == BitBoard.SIZE) {
+            setPackedBoard(packed[0]);
+            return;
+        }
+        if (size != this.size) setBoardSize(size);
+        if (packed.length != kernel.words()) throw new IllegalArgumentException("Expected " + kernel.words() + " words");
+        grid = packed.clone();
+        stateChanged();
+    }
 
     public long getScore() { return score; }
-    public void setScore(long score) { this.score = score; }
+    public void setScore(long score) { this.score = score; historyFromRecord = false; stateChanged(); }
 
     public boolean isGameOver() { return isGameOver; }
-    public void setGameOver(boolean isGameOver) { this.isGameOver = isGameOver; }
+    public void setGameOver(boolean isGameOver) { this.isGameOver = isGameOver; stateChanged(); }
 
     public boolean hasWon() { return hasWon; }
-    public void setHasWon(boolean hasWon) { this.hasWon = hasWon; }
+    public void setHasWon(boolean hasWon) { this.hasWon = hasWon; stateChanged(); }
 
     public boolean isContinuePlaying() { return continuePlaying; }
-    public void setContinuePlaying(boolean continuePlaying) { this.continuePlaying = continuePlaying; }
+    public void setContinuePlaying(boolean continuePlaying) { this.continuePlaying = continuePlaying; stateChanged(); }
+
+    // Packed binary history, written as a single base64 string instead of nested arrays
+    @JsonProperty("history")
+    public byte[] getHistoryData() { return moveHistory.toBytes(); }
+
+    @JsonProperty("history")
+    public void setHistoryData(byte[] data) {
+        moveHistory.fromBytes(data);
+        historyFromRecord = false;
+    }
+
+    boolean isHistoryFromRecord() { return historyFromRecord; }
+
+    // Binary save without a stored history: decodeSave rebuilds it from the record
+    void setHistoryFromRecord() { historyFromRecord = true; }
+
+    // Binary game record (base64 in JSON); checked against the board and score after loading
+    @JsonProperty("record")
+    public byte[] getRecordData() { return gameRecord == null ? null : gameRecord.toBytes(); }
+
+    @JsonProperty("record")
+    public void setRecordData(byte[] data) {
+        try {
+            gameRecord = data == null || kernel != null ? null : GameRecord.fromBytes(data);
+        } catch (RuntimeException e) {
+            gameRecord = null; // Corrupt record; loadGame starts a fresh one
+        }
+        historyFromRecord = false;
+    }
+
+    @JsonIgnore
+    public GameRecord getGameRecord() { return gameRecord; }
+
+    // Spawn generator position; null seed for caller-supplied generators
+    @JsonProperty("seed")
+    public Long getSeedData() { return seeded ? seed : null; }
+
+    @JsonProperty("seed")
+    public void setSeedData(Long seed) {
+        if (seed == null) return; // Keep this instance's own seeded generator
+        this.seed = seed;
+        this.seeded = true;
+    }
+
+    public long getSpawnCount() { return spawnCount; }
+    public void setSpawnCount(long spawnCount) { this.spawnCount = spawnCount; }
+
+    @JsonIgnore
+    public boolean isSeeded() { return seeded; }
+
+    @JsonIgnore
+    public long getSeed() { return seed; }
+
+    // Rebuilds the spawn generator from (seed, spawnCount) after they were loaded or moved by undo/redo
+    private void restoreRandom() {
+        randomStale = false;
+        if (!seeded) return;
+        SplittableRandom restored = new SplittableRandom(seed);
+        for (long i = 0; i < spawnCount; i++) restored.nextLong();
+        random = restored;
+    }
 
-    public List<int[][]> getBoardHistory() { return boardHistory; }
-    public void setBoardHistory(List<int[][]> boardHistory) { this.boardHistory = boardHistory; }
+    @JsonProperty(value = "boardHistory", access = JsonProperty.Access.WRITE_ONLY)
+    public void setBoardHistory(List<int[][]> boardHistory) {
+        this.legacyBoardHistory = boardHistory;
+        migrateLegacyHistory();
+    }
 
-    public List<Long> getScoreHistory() { return scoreHistory; }
-    public void setScoreHistory(List<Long> scoreHistory) { this.scoreHistory = scoreHistory; }
+    @JsonProperty(value = "scoreHistory", access = JsonProperty.Access.WRITE_ONLY)
+    public void setScoreHistory(List<Long> scoreHistory) {
+        this.legacyScoreHistory = scoreHistory;
+        migrateLegacyHistory();
+    }
 
     public List<HighScore> getHighScores() {
         if (highScores == null) highScores = new ArrayList<>();
@@ -90,238 +303,363 @@ public class GameController {
 
     // Clears board and spawns initial tiles
     private void initializeBoard() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                gameBoard[i][j] = 0;
-            }
+        board = 0;
+        if (grid != null) Arrays.fill(grid, 0);
+        spawnTile();
+        spawnTile();
+        resetRecord();
+        rankable = seeded && kernel == null;
+        historyFromRecord = kernel == null; // Both empty
+    }
+
+    // Starts a new record from the current position, e.g. after the board was set directly.
+    // Records and replays are 4x4 only, like the leaderboard they feed.
+    private void resetRecord() {
+        rankable = false;
+        historyFromRecord = false;
+        if (kernel != null) {
+            gameRecord = null;
+        } else if (gameRecord == null) {
+            gameRecord = new GameRecord(seed, board, score);
+        } else {
+            gameRecord.restart(seed, board, score); // No allocation, so benchmarks can set boards per op
         }
-        spawnNewTile();
-        spawnNewTile();
     }
 
-    // Adds a new score, sorts list, and keeps top 10
-    public void addHighScore(String name, long score) {
-        highScores.add(new HighScore(name, score));
-        Collections.sort(highScores);
-        if (highScores.size() > 10) {
-            highScores = highScores.subList(0, 10);
+    // Adds a new score to the leaderboard.
+    // The score is accepted only if re-simulating this game's record reproduces it; the replay is kept with the entry.
+    public boolean addHighScore(String name, long score) {
+        return addHighScore(Leaderboard.getDefault(), name, score);
+    }
+
+    // Same checks, for callers with their own leaderboard (the game server)
+    public boolean addHighScore(Leaderboard leaderboard, String name, long score) {
+        if (!rankable) {
+            System.err.println("Rejected high score " + score + ": only 4x4 games recorded from their seeded start are ranked");
+            return false;
         }
+        if (score != this.score || !GameReplay.verifySeeded(gameRecord, board, this.score)) {
+            System.err.println("Rejected high score " + score + ": it does not match the recorded game");
+            return false;
+        }
+        leaderboard.add(name, score, gameRecord.toPlayedBytes());
+        return true;
     }
 
-    // Checks if a score qualifies for the top 10
+    // Checks if a score qualifies for the top 10 of the leaderboard
     public boolean isHighScore(long currentScore) {
-        if (highScores.size() < 10) return true;
-        return currentScore > highScores.get(highScores.size() - 1).getScore();
+        return rankable && Leaderboard.getDefault().isHighScore(currentScore, Leaderboard.TABLE_SIZE);
     }
 
+    @JsonIgnore
+    public boolean isRankable() { return rankable; }
+
     // Spawns a 2 (90%) or 4 (10%) in a random empty cell
     public void spawnNewTile() {
-        List<int[]> emptyCells = new ArrayList<>();
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                if (gameBoard[r][c] == 0) {
-                    emptyCells.add(new int[]{r, c});
-                }
-            }
-        }
+        spawnTile();
+        stateChanged();
+    }
 
-        if (!emptyCells.isEmpty()) {
-            int[] cell = emptyCells.get(random.nextInt(emptyCells.size()));
-            gameBoard[cell[0]][cell[1]] = random.nextDouble() < 0.9 ? 2 : 4;
+    private void spawnTile() {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int emptyCount = kernel == null ? BitBoard.countEmpty(board) : kernel.countEmpty(grid);
+
+        GameEvents.TileSpawn event = new GameEvents.TileSpawn();
+        event.begin();
+        int cell = -1;
+        if (emptyCount > 0) {
+            if (randomStale) restoreRandom();
+            // One nextLong() per spawn, picked from the empty-cell mask without allocating
+            if (kernel == null) {
+                long before = board;
+                board = BitBoard.spawnRandom(board, random);
+                cell = Long.numberOfTrailingZeros(board ^ before) >>> 2;
+            } else {
+                cell = kernel.spawnRandom(grid, random);
+            }
+            spawnCount++;
         } else if (!isGameOver) {
-            checkGameOver();
+            updateGameOver();
+        }
+        if (Metrics.ENABLED) Metrics.SPAWN_TILE.recordSince(start);
+        if (event.shouldCommit()) {
+            event.cell = cell;
+            event.value = cell < 0 ? 0 : 1 << (kernel == null
+                    ? BitBoard.getExponent(board, cell / BitBoard.SIZE, cell % BitBoard.SIZE)
+                    : BoardKernel.get(grid, cell));
+            event.emptyCells = emptyCount;
+            event.commit();
         }
     }
 
     // Main entry for player moves; returns true if board changed
     public boolean handleMove(Direction direction) {
-        if (isGameOver || (hasWon && !continuePlaying)) return false;
-
-        saveHistoryState(); // Snapshot for undo
-
-        int[][] originalBoard = deepCopy(gameBoard);
-        boolean moved = applyMoveLogic(direction);
-
-        if (moved) {
-            spawnNewTile();
-            checkGameOver();
-        } else {
-            discardLastHistoryState(); // No move happened, don't save undo state
+        GameEvents.Move event = new GameEvents.Move();
+        if (!Metrics.ENABLED && !event.isEnabled()) {
+            if (!applyMove(direction)) return false;
+            stateChanged();
+            return true;
         }
-        return !boardsEqual(originalBoard, gameBoard);
-    }
 
-    // Applies transformation logic based on direction
-    private boolean applyMoveLogic(Direction direction) {
-        boolean moved = false;
-        switch (direction) {
-            case UP -> {
-                transposeBoard();
-                moved = slideAndMergeLeft();
-                transposeBoard();
-            }
-            case DOWN -> {
-                transposeBoard();
-                reverseRows();
-                moved = slideAndMergeLeft();
-                reverseRows();
-                transposeBoard();
-            }
-            case LEFT -> moved = slideAndMergeLeft();
-            case RIGHT -> {
-                reverseRows();
-                moved = slideAndMergeLeft();
-                reverseRows();
+        long start = System.nanoTime();
+        long scoreBefore = score;
+        event.begin();
+        boolean moved = applyMove(direction);
+        if (moved) stateChanged();
+        event.end();
+        if (Metrics.ENABLED) {
+            Metrics.HANDLE_MOVE.recordSince(start);
+            if (moved) {
+                Metrics.MOVES.increment();
+                if (isGameOver) Metrics.GAMES_FINISHED.increment();
             }
         }
+        if (event.shouldCommit()) {
+            event.direction = direction.name();
+            event.changed = moved;
+            event.scoreDelta = score - scoreBefore;
+            event.boardSize = size;
+            event.commit();
+        }
         return moved;
     }
 
-    //Method that slides tiles to left and merges duplicates
-    private boolean slideAndMergeLeft() {
-        boolean changed = false;
-
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            int[] row = gameBoard[r];
-            int[] newRow = new int[BOARD_SIZE];
-            int current = 0;
-
-            // Slide non-zero values to the left
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                if (row[c] != 0) newRow[current++] = row[c];
-            }
+    private boolean applyMove(Direction direction) {
+        if (isGameOver || (hasWon && !continuePlaying)) return false;
+        if (kernel != null) return handleKernelMove(direction);
 
-            if (!rowEquals(row, newRow)) changed = true;
-
-            // Merge adjacent equal values
-            for (int i = 0; i < BOARD_SIZE - 1; i++) {
-                if (newRow[i] != 0 && newRow[i] == newRow[i + 1]) {
-                    newRow[i] *= 2;
-                    score += newRow[i];
-                    newRow[i + 1] = 0;
-                    changed = true;
-                    if (newRow[i] == WINNING_TILE_VALUE) hasWon = true;
-                }
-            }
+        long movedBoard = BitBoard.move(board, direction);
+        if (movedBoard == board) return false; // No move happened, nothing to record
 
-            // Slide again after merge to fill gaps
-            int[] finalRow = new int[BOARD_SIZE];
-            current = 0;
-            for (int i = 0; i < BOARD_SIZE; i++) {
-                if (newRow[i] != 0) finalRow[current++] = newRow[i];
-            }
+        if (moveHistory.getUndoCount() == historyLimit) historyFromRecord = false; // The push drops the oldest step
+        saveHistoryState(); // Snapshot for undo
+        score += BitBoard.scoreDelta(board, direction);
+        board = movedBoard;
+        if (!hasWon && BitBoard.maxExponent(board) >= WINNING_EXPONENT) hasWon = true;
 
-            gameBoard[r] = finalRow;
-        }
-        return changed;
+        spawnTile();
+        gameRecord.recordMove(direction, movedBoard, board);
+        updateGameOver();
+        return true;
     }
 
-    // Board manipulation helpers for directional logic
-    private void reverseRows() {
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE / 2; c++) {
-                int temp = gameBoard[r][c];
-                gameBoard[r][c] = gameBoard[r][BOARD_SIZE - 1 - c];
-                gameBoard[r][BOARD_SIZE - 1 - c] = temp;
-            }
-        }
-    }
+    private boolean handleKernelMove(Direction direction) {
+        int points = kernel.move(grid, direction, movedGrid);
+        if (points < 0) return false;
 
-    private void transposeBoard() {
-        int[][] newBoard = new int[BOARD_SIZE][BOARD_SIZE];
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                newBoard[r][c] = gameBoard[c][r];
-            }
-        }
-        gameBoard = newBoard;
+        moveHistory.push(grid, score);
+        score += points;
+        long[] previous = grid;
+        grid = movedGrid;
+        movedGrid = previous;
+        if (!hasWon && kernel.maxExponent(grid) >= WINNING_EXPONENT) hasWon = true;
+
+        spawnTile();
+        updateGameOver();
+        return true;
     }
 
     // Checks for empty spots or possible merges
     public void checkGameOver() {
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                if (gameBoard[r][c] == 0) {
-                    isGameOver = false;
-                    return;
-                }
-            }
-        }
-        // Check horizontal merges
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE - 1; c++) {
-                if (gameBoard[r][c] == gameBoard[r][c + 1]) {
-                    isGameOver = false;
-                    return;
-                }
-            }
-        }
-        // Check vertical merges
-        for (int r = 0; r < BOARD_SIZE - 1; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                if (gameBoard[r][c] == gameBoard[r + 1][c]) {
-                    isGameOver = false;
-                    return;
-                }
-            }
-        }
-        isGameOver = true;
+        updateGameOver();
+        stateChanged();
+    }
+
+    private void updateGameOver() {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        isGameOver = kernel == null ? BitBoard.isGameOver(board) : kernel.isGameOver(grid);
+        if (Metrics.ENABLED) Metrics.CHECK_GAME_OVER.recordSince(start);
     }
 
     //Undo Logic
 
     private void saveHistoryState() {
-        if (boardHistory.size() >= HISTORY_LIMIT) {
-            boardHistory.remove(0);
-            scoreHistory.remove(0);
-        }
-        boardHistory.add(deepCopy(gameBoard));
-        scoreHistory.add(score);
+        moveHistory.push(board, score);
+    }
+
+    public boolean undo() {
+        boolean undone = restoreUndo();
+        if (!undone) return false;
+        stateChanged();
+        if (Metrics.ENABLED) Metrics.UNDOS.increment();
+        return true;
     }
 
-    private void discardLastHistoryState() {
-        if (!boardHistory.isEmpty()) {
-            boardHistory.remove(boardHistory.size() - 1);
-            scoreHistory.remove(scoreHistory.size() - 1);
+    private boolean restoreUndo() {
+        if (kernel != null) {
+            if (!moveHistory.undo(grid, score)) return false;
+            score = moveHistory.getRestoredScore();
+            moveSpawns(-1);
+            updateGameOver();
+            return true;
         }
+        if (moveHistory.undo(board, score)) {
+            board = moveHistory.getRestoredBoard();
+            score = moveHistory.getRestoredScore();
+            moveSpawns(-1);
+            if (!gameRecord.undo()) resetRecord(); // Undid past the start of the record
+            updateGameOver();
+            return true;
+        }
+        return false;
     }
 
-    public boolean undo() {
-        if (canUndo()) {
-            int lastIndex = boardHistory.size() - 1;
-            gameBoard = boardHistory.remove(lastIndex);
-            score = scoreHistory.remove(lastIndex);
-            checkGameOver();
+    public boolean redo() {
+        if (!restoreRedo()) return false;
+        stateChanged();
+        return true;
+    }
+
+    private boolean restoreRedo() {
+        if (kernel != null) {
+            if (!moveHistory.redo(grid, score)) return false;
+            score = moveHistory.getRestoredScore();
+            moveSpawns(1);
+            updateGameOver();
+            return true;
+        }
+        if (moveHistory.redo(board, score)) {
+            board = moveHistory.getRestoredBoard();
+            score = moveHistory.getRestoredScore();
+            moveSpawns(1);
+            if (!gameRecord.redo()) resetRecord();
+            updateGameOver();
             return true;
         }
         return false;
     }
 
+    // Undo and redo take the spawn generator back and forth with the board, so spawn k of a seeded game is always the
+    // seed's k-th draw: replaying a move gives the same tile, and the record's spawns can be checked against the seed
+    private void moveSpawns(int moves) {
+        if (!seeded) return;
+        spawnCount = Math.max(0, spawnCount + moves);
+        randomStale = true;
+    }
+
+    //Shared State
+
+    // Current state; consistent and immutable, so renderers, savers and other threads can hold on to it. Call it on
+    // the thread that owns the game (engine thread, FX thread, session lock) and hand the result over. Built on
+    // demand, so moves nobody looks at (simulations, self-play, benchmarks) allocate nothing
+    @JsonIgnore
+    public GameState getState() {
+        if (stateStale) {
+            state = kernel == null
+                    ? GameState.of(board, score, isGameOver, hasWon, continuePlaying)
+                    : GameState.of(size, grid, score, isGameOver, hasWon, continuePlaying);
+            stateStale = false;
+        }
+        return state;
+    }
+
+    // Called at the end of every public change
+    private void stateChanged() {
+        stateStale = true;
+    }
+
+    // Keeps at most maxEntries undo steps, dropping the oldest first. Not saved: set it again after loading
+    @JsonIgnore
+    public void setHistoryLimit(int maxEntries) {
+        if (maxEntries < 1) throw new IllegalArgumentException("History limit must be positive: " + maxEntries);
+        historyLimit = maxEntries;
+        byte[] history = moveHistory.toBytes();
+        int entries = moveHistory.getUndoCount() + moveHistory.getRedoCount();
+        moveHistory = new MoveHistory(moveHistory.getWords(), maxEntries);
+        moveHistory.fromBytes(history);
+        if (moveHistory.getUndoCount() + moveHistory.getRedoCount() < entries) historyFromRecord = false;
+    }
+
     public boolean canUndo() {
-        return !boardHistory.isEmpty();
+        return moveHistory.canUndo();
+    }
+
+    public boolean canRedo() {
+        return moveHistory.canRedo();
+    }
+
+    private void migrateLegacyHistory() {
+        if (legacyBoardHistory == null || legacyScoreHistory == null) return;
+        moveHistory.clear();
+        historyFromRecord = false;
+        int entries = Math.min(legacyBoardHistory.size(), legacyScoreHistory.size());
+        for (int i = 0; i < entries; i++) {
+            moveHistory.push(BitBoard.fromArray(legacyBoardHistory.get(i)), legacyScoreHistory.get(i));
+        }
+        legacyBoardHistory = null;
+        legacyScoreHistory = null;
     }
 
     //Persistence
 
     public void saveGame(String filePath) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
+        saveGame(filePath, DEFAULT_SAVE_FORMAT);
+    }
+
+    // Writes a temp file next to the save, forces it to disk, then renames it over the save,
+    // so a crash mid-write leaves the previous save intact
+    public void saveGame(String filePath, SaveFormat format) {
+        long start = System.nanoTime();
+        GameEvents.Save event = new GameEvents.Save();
+        event.begin();
+        try {
+            byte[] data = encodeSave(format);
+            writeSaveFile(filePath, data);
+            if (Metrics.ENABLED) Metrics.SAVE_GAME.recordSince(start);
+            if (event.shouldCommit()) {
+                event.path = filePath;
+                event.bytes = data.length;
+                event.commit();
+            }
+            System.out.printf("Game saved to %s (%s, %d bytes, %.2f ms)%n",
+                    filePath, format, data.length, (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.err.println("Error saving game: " + e.getMessage());
+        }
+    }
+
+    // Snapshots the game on the calling thread and writes it on the SaveService thread
+    public void saveGameAsync(String filePath) {
         try {
-            writer.writeValue(new File(filePath), this);
-            System.out.println("Game saved to " + filePath);
+            SaveService.getDefault().submit(filePath, encodeSave(DEFAULT_SAVE_FORMAT));
         } catch (IOException e) {
             System.err.println("Error saving game: " + e.getMessage());
         }
     }
 
+    // Immutable snapshot of the whole game in the given format
+    public byte[] encodeSave(SaveFormat format) throws IOException {
+        return format == SaveFormat.BINARY ? BinarySaveCodec.encode(this) : Json.WRITER.writeValueAsBytes(this);
+    }
+
+    static void writeSaveFile(String filePath, byte[] data) throws IOException {
+        writeAtomically(Path.of(filePath), data);
+        if (filePath.equals(SAVE_FILE)) {
+            Files.deleteIfExists(Path.of(LEGACY_SAVE_FILE)); // Migration complete
+            SaveRepository.getDefault().onWritten(data); // Keeps the menu's cached copy current without a re-read
+        }
+    }
+
+    // Reads either format; the first binary save after loading a JSON save migrates it
     public static GameController loadGame(String filePath) {
-        ObjectMapper mapper = new ObjectMapper();
+        long start = System.nanoTime();
+        GameEvents.Load event = new GameEvents.Load();
+        event.begin();
+        Path path = resolveSaveFile(filePath);
         try {
-            GameController loadedGame = mapper.readValue(new File(filePath), GameController.class);
-            loadedGame.checkGameOver();
-            System.out.println("Game loaded from " + filePath);
+            // A save still queued in the SaveService is newer than the file
+            byte[] data = SaveService.getDefault().pendingSnapshot(filePath);
+            if (data == null) data = Files.readAllBytes(path);
+            GameController loadedGame = decodeSave(data);
+            if (Metrics.ENABLED) Metrics.LOAD_GAME.recordSince(start);
+            if (event.shouldCommit()) {
+                event.path = path.toString();
+                event.bytes = data.length;
+                event.commit();
+            }
+            System.out.printf("Game loaded from %s (%d bytes, %.2f ms)%n", path, data.length, (System.nanoTime() - start) / 1e6);
             return loadedGame;
-        } catch (FileNotFoundException e) {
+        } catch (NoSuchFileException e) {
             System.out.println("No save found. Starting new game.");
         } catch (IOException e) {
             e.printStackTrace();
@@ -329,37 +667,106 @@ public class GameController {
         return new GameController();
     }
 
-    public static boolean saveFileExists(String filePath) {
-        return new File(filePath).exists();
+    // Parses a save in either format
+    public static GameController decodeSave(byte[] data) throws IOException {
+        GameController loadedGame = BinarySaveCodec.isBinarySave(data)
+                ? BinarySaveCodec.decode(data)
+                : Json.MAPPER.readValue(data, GameController.class);
+        loadedGame.checkGameOver();
+        // Every spawn adds at least 2 to the tile sum, which is at most 2^MAX_EXPONENT per cell: a larger count cannot
+        // belong to any board of this size, and restoreRandom() would replay that many draws
+        long maxSpawns = (long) loadedGame.size * loadedGame.size << (BitBoard.MAX_EXPONENT - 1);
+        if (loadedGame.spawnCount < 0 || loadedGame.spawnCount > maxSpawns) {
+            throw new IOException("Invalid spawn count " + loadedGame.spawnCount);
+        }
+        loadedGame.restoreRandom();
+        if (loadedGame.kernel == null) loadedGame.checkRecord();
+        return loadedGame;
     }
 
-    public static String getSaveFile() {
-        return SAVE_FILE;
+    // Save metadata for the menus, read without decoding the game (no record replay or history)
+    public static boolean isSavedGameOver(byte[] data) throws IOException {
+        if (BinarySaveCodec.isBinarySave(data)) return BinarySaveCodec.readGameOver(data);
+        JsonNode gameOver = readJsonField(data, "gameOver");
+        return gameOver != null && gameOver.asBoolean();
     }
 
-    //Utility Methods
-
-    private int[][] deepCopy(int[][] source) {
-        int[][] destination = new int[BOARD_SIZE][BOARD_SIZE];
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            System.arraycopy(source[i], 0, destination[i], 0, BOARD_SIZE);
+    public static List<HighScore> readSavedHighScores(byte[] data) throws IOException {
+        if (BinarySaveCodec.isBinarySave(data)) return BinarySaveCodec.readHighScores(data);
+        JsonNode highScores = readJsonField(data, "highScores");
+        if (highScores == null || highScores.isNull()) return List.of();
+        try {
+            return Json.MAPPER.convertValue(highScores, new TypeReference<List<HighScore>>() {});
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt high score table", e);
         }
-        return destination;
     }
 
-    private boolean boardsEqual(int[][] b1, int[][] b2) {
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                if (b1[r][c] != b2[r][c]) return false;
+    // Top-level field of a JSON save; the fields before it are skipped without building them
+    private static JsonNode readJsonField(byte[] data, String name) throws IOException {
+        try (JsonParser parser = Json.MAPPER.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) throw new IOException("Not a JSON save");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (field.equals(name)) return parser.readValueAsTree();
+                parser.skipChildren();
             }
+            return null;
         }
-        return true;
     }
 
-    private boolean rowEquals(int[] r1, int[] r2) {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            if (r1[i] != r2[i]) return false;
+    // Replays a loaded record once: keeps it if it leads to the board and score, ranks the game if it also replays
+    // from this game's seed up to the generator's position, and rebuilds the history from it or checks they match
+    private void checkRecord() throws IOException {
+        MoveHistory derived = new MoveHistory();
+        GameReplay.Check check = gameRecord == null ? GameReplay.Check.INVALID
+                : GameReplay.check(gameRecord, board, score, derived);
+        if (check == GameReplay.Check.INVALID) {
+            if (historyFromRecord) throw new IOException("Save history depends on a game record that does not match the board");
+            resetRecord(); // Older save or mismatched record: record from here on, unranked
+            return;
         }
-        return true;
+        rankable = check == GameReplay.Check.SEEDED && seeded && gameRecord.getSeed() == seed
+                && spawnCount == gameRecord.getMoveCount() + 2L;
+        byte[] history = derived.toBytes();
+        if (historyFromRecord) {
+            moveHistory.fromBytes(history);
+        } else {
+            historyFromRecord = Arrays.equals(history, moveHistory.toBytes());
+        }
+    }
+
+    // Falls back to the JSON save of older versions until the default save file has been written
+    static Path resolveSaveFile(String filePath) {
+        Path path = Path.of(filePath);
+        if (filePath.equals(SAVE_FILE) && !Files.exists(path) && Files.exists(Path.of(LEGACY_SAVE_FILE))) {
+            return Path.of(LEGACY_SAVE_FILE);
+        }
+        return path;
+    }
+
+    private static void writeAtomically(Path file, byte[] data) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        replaceAtomically(temp, file);
+    }
+
+    // Renames a fully written temp file over the target; falls back to a plain replace where renames are not atomic
+    static void replaceAtomically(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static String getSaveFile() {
+        return SAVE_FILE;
     }
 }
\ No newline at end of file
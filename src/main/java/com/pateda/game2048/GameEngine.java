@@ -0,0 +1,140 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+// Runs a GameController on its own thread so game logic is not paced by rendering.
+// Other threads hand over commands through a lock-free queue and read back snapshots of the game's immutable
+// GameState, taken after every change; a renderer only needs the latest one. While the engine runs, its thread
+// is the only one touching the game; close() hands it back.
+public class GameEngine {
+
+    // The game after a change; the state is shared with the GameController, not copied
+    public record Snapshot(long sequence, GameState state, boolean canUndo) {}
+
+    private final GameController game;
+    private final Queue<Predicate<GameController>> commands = new ConcurrentLinkedQueue<>(); // true if it changed the game
+    private final AtomicReference<Strategy> autoplay = new AtomicReference<>();
+    private final SplittableRandom strategyRandom = new SplittableRandom(); // Engine thread only
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile Snapshot latest;
+
+    // Written by the engine thread only
+    private long sequence;
+    private volatile long moves;
+    private final long startNanos = System.nanoTime();
+    private long stopNanos;
+
+    public GameEngine(GameController game) {
+        this.game = game;
+        this.latest = snapshot();
+        this.thread = new Thread(this::run, "game-engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    //Commands
+
+    public void submit(Direction direction) {
+        submit(game -> game.handleMove(direction));
+    }
+
+    public void submit(Predicate<GameController> command) {
+        commands.offer(command);
+        LockSupport.unpark(thread);
+    }
+
+    // Plays the strategy's moves back to back until it finds none (game over or won), or until set to null.
+    // Strategies work on packed boards, so this only runs 4x4 games.
+    public void setAutoplay(Strategy strategy) {
+        autoplay.set(strategy);
+        LockSupport.unpark(thread);
+    }
+
+    public boolean isAutoplaying() {
+        return autoplay.get() != null;
+    }
+
+    public Snapshot latest() {
+        return latest;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    // Stops the thread after the command being run; the caller owns the game again once this returns
+    public GameController close() {
+        running = false;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return game;
+    }
+
+    //Engine Thread
+
+    private void run() {
+        while (running) {
+            boolean changed = false;
+            Predicate<GameController> command;
+            while ((command = commands.poll()) != null) {
+                changed |= apply(command);
+            }
+
+            Strategy strategy = autoplay.get();
+            if (strategy != null) {
+                Direction direction = game.getBoardSize() == BitBoard.SIZE && !game.isGameOver()
+                        ? strategy.chooseMove(game.getPackedBoard(), strategyRandom) : null;
+                if (direction != null && game.handleMove(direction)) {
+                    moves++;
+                    changed = true;
+                } else {
+                    autoplay.compareAndSet(strategy, null); // Nothing left to play
+                }
+            }
+
+            if (changed) {
+                sequence++;
+                latest = snapshot();
+            } else if (autoplay.get() == null && commands.isEmpty()) {
+                LockSupport.park(this); // Woken by submit, setAutoplay or close
+            }
+        }
+        stopNanos = System.nanoTime();
+    }
+
+    private boolean apply(Predicate<GameController> command) {
+        try {
+            return command.test(game);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private Snapshot snapshot() {
+        return new Snapshot(sequence, game.getState(), game.canUndo());
+    }
+
+    // Call after close(); framesRendered is how many snapshots the renderer actually drew
+    public String summary(long framesRendered) {
+        double seconds = Math.max(1, (stopNanos == 0 ? System.nanoTime() : stopNanos) - startNanos) / 1e9;
+        return String.format("Engine: %d autoplay moves in %.2f s (%.0f moves/s), %d snapshots, %d rendered, %d skipped",
+                moves, seconds, moves / seconds, sequence, framesRendered, Math.max(0, sequence - framesRendered));
+    }
+}
@@ -0,0 +1,119 @@
+package com.pateda.game2048;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Java Flight Recorder events for gameplay, persistence and UI, all under the "2048" category so a recording
+// (-XX:StartFlightRecording) shows them next to GC, JIT and file I/O events on the same timeline.
+// When no recording is running, isEnabled()/shouldCommit() are false and the events cost next to nothing.
+public final class GameEvents {
+
+    private GameEvents() {
+    }
+
+    //Gameplay
+
+    @Name("com.pateda.game2048.Move")
+    @Label("Move")
+    @Category({"2048", "Gameplay"})
+    @Description("GameController.handleMove, including the spawn and game-over check that follow")
+    @StackTrace(false)
+    public static final class Move extends Event {
+        @Label("Direction")
+        public String direction;
+
+        @Label("Board Changed")
+        public boolean changed;
+
+        @Label("Score Delta")
+        public long scoreDelta;
+
+        @Label("Board Size")
+        public int boardSize;
+    }
+
+    @Name("com.pateda.game2048.TileSpawn")
+    @Label("Tile Spawn")
+    @Category({"2048", "Gameplay"})
+    @StackTrace(false)
+    public static final class TileSpawn extends Event {
+        @Label("Cell")
+        @Description("Row-major cell index, -1 if the board was full")
+        public int cell;
+
+        @Label("Value")
+        public int value;
+
+        @Label("Empty Cells")
+        @Description("Empty cells before the spawn")
+        public int emptyCells;
+    }
+
+    //Persistence
+
+    @Name("com.pateda.game2048.Save")
+    @Label("Save")
+    @Category({"2048", "Persistence"})
+    public static final class Save extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Background")
+        @Description("Written by the SaveService thread")
+        public boolean background;
+    }
+
+    @Name("com.pateda.game2048.Load")
+    @Label("Load")
+    @Category({"2048", "Persistence"})
+    public static final class Load extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("From Cache")
+        @Description("Decoded from the SaveRepository's cached copy instead of the file")
+        public boolean cached;
+    }
+
+    //UI
+
+    @Name("com.pateda.game2048.FxmlLoad")
+    @Label("FXML Load")
+    @Category({"2048", "UI"})
+    public static final class FxmlLoad extends Event {
+        @Label("View")
+        public String view;
+    }
+
+    @Name("com.pateda.game2048.SceneSwitch")
+    @Label("Scene Switch")
+    @Category({"2048", "UI"})
+    public static final class SceneSwitch extends Event {
+        @Label("View")
+        public String view;
+
+        @Label("Preloaded")
+        public boolean preloaded;
+    }
+
+    @Name("com.pateda.game2048.ThemeSwitch")
+    @Label("Theme Switch")
+    @Category({"2048", "UI"})
+    public static final class ThemeSwitch extends Event {
+        @Label("Dark")
+        public boolean dark;
+    }
+}
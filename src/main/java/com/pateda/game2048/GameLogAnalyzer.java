@@ -0,0 +1,145 @@
+package com.pateda.game2048;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Offline analytics over a game log (see GameLogWriter), spread over a fork/join pool.
+// Tasks split the log on block boundaries and memory-map their range read-only; records are read in place from
+// the mapping and replayed move by move with GameRecord's rules (BitBoard moves plus the recorded spawns), so
+// nothing is copied or allocated per game. Each task fills its own GameLogStats and the results are merged.
+public class GameLogAnalyzer {
+
+    private static final int BLOCKS_PER_TASK = 64; // Mapped at once by one task
+
+    private final int parallelism;
+    private final long seedRangeWidth;
+    private final int targetExponent;
+
+    public GameLogAnalyzer(int parallelism, long seedRangeWidth, int targetExponent) {
+        this.parallelism = parallelism;
+        this.seedRangeWidth = seedRangeWidth;
+        this.targetExponent = targetExponent;
+    }
+
+    public GameLogStats run(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long blocks = (size + GameLogWriter.BLOCK_BYTES - 1) / GameLogWriter.BLOCK_BYTES;
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                return pool.invoke(new BlockRangeTask(channel, size, 0, blocks));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private class BlockRangeTask extends RecursiveTask<GameLogStats> {
+        private final FileChannel channel;
+        private final long fileSize;
+        private final long from;
+        private final long to;
+
+        BlockRangeTask(FileChannel channel, long fileSize, long from, long to) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GameLogStats compute() {
+            if (to - from <= BLOCKS_PER_TASK) {
+                GameLogStats stats = new GameLogStats(seedRangeWidth, targetExponent);
+                try {
+                    analyzeBlocks(channel, fileSize, from, to, stats);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return stats;
+            }
+            long mid = (from + to) >>> 1;
+            BlockRangeTask left = new BlockRangeTask(channel, fileSize, from, mid);
+            left.fork();
+            GameLogStats right = new BlockRangeTask(channel, fileSize, mid, to).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    private static void analyzeBlocks(FileChannel channel, long fileSize, long from, long to, GameLogStats stats)
+            throws IOException {
+        long start = from * GameLogWriter.BLOCK_BYTES;
+        int length = (int) (Math.min(fileSize, to * GameLogWriter.BLOCK_BYTES) - start);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        int[] checkpointMax = new int[GameLogStats.CHECKPOINTS.length];
+
+        for (int blockStart = 0; blockStart < length; blockStart += GameLogWriter.BLOCK_BYTES) {
+            int blockEnd = Math.min(length, blockStart + GameLogWriter.BLOCK_BYTES);
+            int offset = blockStart;
+            while (blockEnd - offset >= GameRecord.HEADER_BYTES && GameRecord.isRecordAt(buffer, offset)) {
+                int recordLength = GameRecord.encodedLengthAt(buffer, offset);
+                if (recordLength < GameRecord.HEADER_BYTES || recordLength > blockEnd - offset) break;
+                analyzeRecord(buffer, offset, stats, checkpointMax);
+                offset += recordLength;
+            }
+            if (offset < blockEnd && buffer.get(offset) != 0) stats.recordCorruptBlock(); // Not padding
+            stats.recordBytes(offset - blockStart);
+        }
+    }
+
+    // Replays one record in place. The score is not summed per move: it follows from the final board and the number
+    // of spawned 4s (BitBoard.tileScore). The largest tile can only grow by one per move, so only that is checked
+    private static void analyzeRecord(MappedByteBuffer buffer, int offset, GameLogStats stats, int[] checkpointMax) {
+        long seed = buffer.getLong(offset + GameRecord.SEED_OFFSET);
+        long initialBoard = buffer.getLong(offset + GameRecord.INITIAL_BOARD_OFFSET);
+        long initialScore = buffer.getLong(offset + GameRecord.INITIAL_SCORE_OFFSET);
+        int moves = buffer.getInt(offset + GameRecord.LENGTH_OFFSET);
+        int movesStart = offset + GameRecord.HEADER_BYTES;
+
+        long board = initialBoard;
+        int maxExponent = BitBoard.maxExponent(board);
+        int fours = 0;
+        int checkpoint = 0;
+        for (int i = 0; i < moves; i++) {
+            if (checkpoint < checkpointMax.length && i == GameLogStats.CHECKPOINTS[checkpoint]) {
+                checkpointMax[checkpoint++] = maxExponent;
+            }
+            int move = buffer.get(movesStart + i);
+            stats.recordMove(maxExponent, move & 0x3);
+            fours += (move >>> 6) & 1;
+            board = GameRecord.applyMoveByte(board, move);
+            if (maxExponent < BitBoard.MAX_EXPONENT && BitBoard.containsExponent(board, maxExponent + 1)) maxExponent++;
+        }
+        if (checkpoint < checkpointMax.length && moves == GameLogStats.CHECKPOINTS[checkpoint]) {
+            checkpointMax[checkpoint++] = maxExponent;
+        }
+        long score = initialScore + BitBoard.tileScore(board) - BitBoard.tileScore(initialBoard) - 4L * fours;
+        stats.recordGame(seed, score, maxExponent, moves, checkpointMax, checkpoint);
+    }
+
+    // Usage: GameLogAnalyzer <game log> [threads] [seed range width] [target tile]
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: GameLogAnalyzer <game log> [threads] [seed range width] [target tile]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seedRangeWidth = args.length > 2 ? Long.parseLong(args[2]) : 10_000;
+        int targetExponent = BitBoard.toExponent(args.length > 3 ? Integer.parseInt(args[3]) : 4096);
+
+        System.out.printf("Analyzing %s on %d threads%n", file, threads);
+        long start = System.nanoTime();
+        GameLogStats stats = new GameLogAnalyzer(threads, seedRangeWidth, targetExponent).run(file);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        stats.print(System.out, seconds);
+    }
+}
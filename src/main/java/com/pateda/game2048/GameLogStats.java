@@ -0,0 +1,199 @@
+package com.pateda.game2048;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Aggregates of a game log, all in primitive counters. Not thread-safe: each GameLogAnalyzer task fills its own
+// instance and they are merged.
+//
+//   Final scores        log-linear histogram (LatencyHistogram buckets, ~6% resolution), overall and per seed range
+//   Move directions     counts per phase, the phase being the largest tile on the board before the move
+//   Reach probability   for each checkpoint move N: games by largest tile after N moves, and how many of those
+//                       went on to reach the target tile; games that ended before move N are not counted there
+public class GameLogStats {
+
+    public static final int[] CHECKPOINTS = {100, 250, 500, 1000, 2000, 5000, 10000, 20000};
+
+    private static final int EXPONENTS = BitBoard.MAX_EXPONENT + 1;
+    private static final int DIRECTIONS = 4;
+    // Per seed range: score buckets, then game count, total score and max score
+    private static final int RANGE_GAMES = LatencyHistogram.BUCKETS;
+    private static final int RANGE_TOTAL = RANGE_GAMES + 1;
+    private static final int RANGE_MAX = RANGE_GAMES + 2;
+    private static final int RANGE_SLOTS = RANGE_GAMES + 3;
+
+    private final long seedRangeWidth;
+    private final int targetExponent;
+
+    private long games;
+    private long moves;
+    private long bytes;
+    private long corruptBlocks;
+    private final long[] scores = new long[RANGE_SLOTS];
+    private final long[] maxTileCounts = new long[EXPONENTS];
+    private final long[] directionCounts = new long[EXPONENTS * DIRECTIONS]; // [phase exponent][direction]
+    private final long[] checkpointGames = new long[CHECKPOINTS.length * EXPONENTS]; // [checkpoint][max exponent]
+    private final long[] checkpointReached = new long[CHECKPOINTS.length * EXPONENTS];
+
+    private final Map<Long, long[]> seedRanges = new HashMap<>();
+    private long lastRange = Long.MIN_VALUE; // Logs are written in batches of consecutive seeds
+    private long[] lastRangeScores;
+
+    public GameLogStats(long seedRangeWidth, int targetExponent) {
+        this.seedRangeWidth = seedRangeWidth;
+        this.targetExponent = targetExponent;
+    }
+
+    //Recording
+
+    public void recordMove(int phaseExponent, int direction) {
+        directionCounts[phaseExponent * DIRECTIONS + direction]++;
+    }
+
+    // checkpointMax[c] is the largest exponent after CHECKPOINTS[c] moves, for the checkpoints the game reached
+    public void recordGame(long seed, long score, int maxExponent, int gameMoves, int[] checkpointMax, int checkpointsReached) {
+        games++;
+        moves += gameMoves;
+        maxTileCounts[maxExponent]++;
+        addScore(scores, score);
+        addScore(rangeScores(Math.floorDiv(seed, seedRangeWidth)), score);
+
+        boolean reached = maxExponent >= targetExponent;
+        for (int c = 0; c < checkpointsReached; c++) {
+            int slot = c * EXPONENTS + checkpointMax[c];
+            checkpointGames[slot]++;
+            if (reached) checkpointReached[slot]++;
+        }
+    }
+
+    public void recordBytes(long length) {
+        bytes += length;
+    }
+
+    public void recordCorruptBlock() {
+        corruptBlocks++;
+    }
+
+    private long[] rangeScores(long range) {
+        if (range != lastRange) {
+            lastRange = range;
+            lastRangeScores = seedRanges.computeIfAbsent(range, key -> new long[RANGE_SLOTS]);
+        }
+        return lastRangeScores;
+    }
+
+    private static void addScore(long[] histogram, long score) {
+        histogram[LatencyHistogram.index(score)]++;
+        histogram[RANGE_GAMES]++;
+        histogram[RANGE_TOTAL] += score;
+        histogram[RANGE_MAX] = Math.max(histogram[RANGE_MAX], score);
+    }
+
+    public GameLogStats merge(GameLogStats other) {
+        games += other.games;
+        moves += other.moves;
+        bytes += other.bytes;
+        corruptBlocks += other.corruptBlocks;
+        mergeScores(scores, other.scores);
+        for (int i = 0; i < maxTileCounts.length; i++) maxTileCounts[i] += other.maxTileCounts[i];
+        for (int i = 0; i < directionCounts.length; i++) directionCounts[i] += other.directionCounts[i];
+        for (int i = 0; i < checkpointGames.length; i++) {
+            checkpointGames[i] += other.checkpointGames[i];
+            checkpointReached[i] += other.checkpointReached[i];
+        }
+        for (Map.Entry<Long, long[]> entry : other.seedRanges.entrySet()) {
+            long[] mine = seedRanges.get(entry.getKey());
+            if (mine == null) {
+                seedRanges.put(entry.getKey(), entry.getValue());
+            } else {
+                mergeScores(mine, entry.getValue());
+            }
+        }
+        lastRange = Long.MIN_VALUE;
+        return this;
+    }
+
+    private static void mergeScores(long[] into, long[] from) {
+        for (int i = 0; i < RANGE_MAX; i++) into[i] += from[i];
+        into[RANGE_MAX] = Math.max(into[RANGE_MAX], from[RANGE_MAX]);
+    }
+
+    public long getGames() { return games; }
+    public long getMoves() { return moves; }
+    public long getBytes() { return bytes; }
+    public long getCorruptBlocks() { return corruptBlocks; }
+    public long getMaxTileCount(int exponent) { return maxTileCounts[exponent]; }
+
+    public long scorePercentile(double percentile) {
+        return LatencyHistogram.percentile(scores, percentile, scores[RANGE_MAX]);
+    }
+
+    // Share of games with the given largest tile after CHECKPOINTS[checkpoint] moves that reached the target; NaN if none
+    public double reachProbability(int checkpoint, int exponent) {
+        long total = checkpointGames[checkpoint * EXPONENTS + exponent];
+        return total == 0 ? Double.NaN : (double) checkpointReached[checkpoint * EXPONENTS + exponent] / total;
+    }
+
+    //Report
+
+    public void print(PrintStream out, double seconds) {
+        out.printf("Games: %d (%d moves, %.1f MB) in %.2f s (%.0f games/sec, %.0f MB/sec)%n",
+                games, moves, bytes / 1e6, seconds, games / seconds, bytes / 1e6 / seconds);
+        if (corruptBlocks > 0) out.printf("Skipped the rest of %d corrupt blocks%n", corruptBlocks);
+        if (games == 0) return;
+
+        out.print("Score:");
+        printScores(out, scores);
+        out.println();
+
+        out.printf("Score by seed range (width %d):%n", seedRangeWidth);
+        List<Long> ranges = new ArrayList<>(seedRanges.keySet());
+        ranges.sort(null);
+        for (long range : ranges) {
+            long from = range * seedRangeWidth;
+            out.printf("  %d - %d:", from, from + seedRangeWidth - 1);
+            printScores(out, seedRanges.get(range));
+            out.println();
+        }
+
+        out.println("Move directions by largest tile (up / down / left / right):");
+        for (int e = 0; e < EXPONENTS; e++) {
+            long total = 0;
+            for (int d = 0; d < DIRECTIONS; d++) total += directionCounts[e * DIRECTIONS + d];
+            if (total == 0) continue;
+            out.printf("  %6d  %12d moves ", 1 << e, total);
+            for (int d = 0; d < DIRECTIONS; d++) {
+                out.printf(" %6.2f%%", 100.0 * directionCounts[e * DIRECTIONS + d] / total);
+            }
+            out.println();
+        }
+
+        out.printf("Chance of reaching %d, by largest tile after N moves:%n", 1 << targetExponent);
+        for (int c = 0; c < CHECKPOINTS.length; c++) {
+            StringBuilder line = new StringBuilder();
+            for (int e = 0; e < EXPONENTS; e++) {
+                long total = checkpointGames[c * EXPONENTS + e];
+                if (total == 0) continue;
+                line.append(String.format("  %d: %.2f%% of %d", 1 << e, 100 * reachProbability(c, e), total));
+            }
+            if (line.length() > 0) out.printf("  N=%-6d%s%n", CHECKPOINTS[c], line);
+        }
+
+        out.println("Max tile distribution:");
+        for (int i = 1; i < maxTileCounts.length; i++) {
+            if (maxTileCounts[i] == 0) continue;
+            out.printf("  %6d  %10d  %6.2f%%%n", 1 << i, maxTileCounts[i], 100.0 * maxTileCounts[i] / games);
+        }
+    }
+
+    private static void printScores(PrintStream out, long[] histogram) {
+        long max = histogram[RANGE_MAX];
+        out.printf(" %d games, mean %.1f, p10 %d, p50 %d, p90 %d, p99 %d, max %d",
+                histogram[RANGE_GAMES], (double) histogram[RANGE_TOTAL] / histogram[RANGE_GAMES],
+                LatencyHistogram.percentile(histogram, 10, max), LatencyHistogram.percentile(histogram, 50, max),
+                LatencyHistogram.percentile(histogram, 90, max), LatencyHistogram.percentile(histogram, 99, max), max);
+    }
+}
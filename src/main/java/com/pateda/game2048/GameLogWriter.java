@@ -0,0 +1,123 @@
+package com.pateda.game2048;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Appends finished games to a game log for GameLogAnalyzer.
+//
+// A game log is a sequence of BLOCK_BYTES blocks, each holding whole GameRecord encodings (played moves only)
+// back to back, zero-padded at the end; only the last block of the file may be short. No record crosses a block
+// boundary, so readers can split a log at any block and map each range on its own. A 4x4 game cannot reach
+// BLOCK_BYTES of moves: every move adds 2 or 4 to the tile sum, which stays below 2^18.
+//
+// Every thread fills its own block and writes it out whole when the next record does not fit; close() packs the
+// partly filled blocks together. Opening an existing log appends to it.
+public class GameLogWriter implements AutoCloseable {
+
+    public static final int BLOCK_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final List<ByteBuffer> blocks = new ArrayList<>(); // Every thread's block, for close()
+    private final ThreadLocal<ByteBuffer> block = ThreadLocal.withInitial(this::newBlock);
+    private long end;
+    private long records;
+
+    private GameLogWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        end = channel.size();
+        if (end % BLOCK_BYTES != 0) { // Short last block of an earlier run: pad it so appends stay aligned
+            end += BLOCK_BYTES - end % BLOCK_BYTES;
+            writeFully(ByteBuffer.allocate(1), end - 1);
+        }
+    }
+
+    public static GameLogWriter open(Path file) throws IOException {
+        return new GameLogWriter(file);
+    }
+
+    private synchronized ByteBuffer newBlock() {
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_BYTES);
+        blocks.add(buffer);
+        return buffer;
+    }
+
+    //Appending
+
+    // Adds the record's played moves; safe to call from many threads, but not concurrently with close()
+    public void append(GameRecord record) {
+        int length = record.playedBytes();
+        if (length > BLOCK_BYTES) throw new IllegalArgumentException("Record of " + length + " bytes does not fit a block");
+        ByteBuffer buffer = block.get();
+        if (buffer.remaining() < length) writeBlock(buffer);
+        record.writePlayed(buffer);
+    }
+
+    // Writes the block padded to full size and empties it
+    private void writeBlock(ByteBuffer buffer) {
+        Arrays.fill(buffer.array(), buffer.position(), BLOCK_BYTES, (byte) 0);
+        buffer.clear();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private synchronized void write(ByteBuffer buffer) {
+        try {
+            writeFully(buffer, end);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot append to game log", e);
+        }
+        end += buffer.limit();
+        records += countRecords(buffer);
+    }
+
+    private static int countRecords(ByteBuffer buffer) {
+        int count = 0;
+        for (int offset = 0; GameRecord.isRecordAt(buffer, offset); offset += GameRecord.encodedLengthAt(buffer, offset)) {
+            count++;
+        }
+        return count;
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    //Closing
+
+    // Packs the partly filled blocks into as few blocks as possible; the last one is written short
+    @Override
+    public synchronized void close() {
+        ByteBuffer packed = ByteBuffer.allocate(BLOCK_BYTES);
+        for (ByteBuffer buffer : blocks) {
+            int used = buffer.position();
+            for (int offset = 0; offset < used; ) {
+                int length = GameRecord.encodedLengthAt(buffer, offset);
+                if (packed.remaining() < length) writeBlock(packed);
+                packed.put(buffer.array(), offset, length);
+                offset += length;
+            }
+            buffer.clear();
+        }
+        if (packed.position() > 0) {
+            packed.flip();
+            write(packed);
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing game log: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.pateda.game2048;
+
+// Management interface of Metrics, registered as com.pateda.game2048:type=GameMetrics
+public interface GameMetricsMXBean {
+
+    long getMoves();
+    long getUndos();
+    long getGamesStarted();
+    long getGamesFinished();
+    double getTimeToFirstFrameMillis();
+
+    LatencyStats getHandleMove();
+    LatencyStats getSpawnTile();
+    LatencyStats getCheckGameOver();
+    LatencyStats getSaveGame();
+    LatencyStats getLoadGame();
+    LatencyStats getUpdateBoardUI();
+    LatencyStats getLoadScene();
+
+    void reset();
+}
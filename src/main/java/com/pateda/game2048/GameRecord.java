@@ -0,0 +1,168 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Compact binary log of one game: seed, starting position, then one byte per move.
+// Move byte layout: [unused:1][spawn is a 4:1][spawn cell:4][direction:2].
+// Like MoveHistory, bytes past the cursor are kept for redo until a new move overwrites them.
+public class GameRecord {
+
+    private static final int MAGIC = 0x32303438; // "2048"
+    private static final byte FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = Integer.BYTES + 1 + 3 * Long.BYTES + 2 * Integer.BYTES;
+    // Field offsets within an encoded record
+    static final int SEED_OFFSET = Integer.BYTES + 1;
+    static final int INITIAL_BOARD_OFFSET = SEED_OFFSET + Long.BYTES;
+    static final int INITIAL_SCORE_OFFSET = INITIAL_BOARD_OFFSET + Long.BYTES;
+    static final int LENGTH_OFFSET = INITIAL_SCORE_OFFSET + Long.BYTES;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private long seed;
+    private long initialBoard;
+    private long initialScore;
+    private byte[] moves;
+    private int length;     // Moves in the current line of play
+    private int redoLength; // Moves available to redo up to this index
+
+    public GameRecord(long seed, long initialBoard, long initialScore) {
+        this.seed = seed;
+        this.initialBoard = initialBoard;
+        this.initialScore = initialScore;
+        this.moves = new byte[64];
+    }
+
+    // Starts over from a new position, keeping the move buffer (GameController resets its record on every board set)
+    void restart(long seed, long initialBoard, long initialScore) {
+        this.seed = seed;
+        this.initialBoard = initialBoard;
+        this.initialScore = initialScore;
+        length = 0;
+        redoLength = 0;
+    }
+
+    // Records a move and the tile it spawned (spawnedBoard ^ movedBoard must be exactly one new tile)
+    public void recordMove(Direction direction, long movedBoard, long spawnedBoard) {
+        long tile = spawnedBoard ^ movedBoard;
+        int cell = Long.numberOfTrailingZeros(tile) / 4;
+        int isFour = (int) (tile >>> (cell * 4)) == 2 ? 1 : 0;
+
+        if (length == moves.length) moves = Arrays.copyOf(moves, moves.length * 2);
+        moves[length++] = (byte) (direction.ordinal() | (cell << 2) | (isFour << 6));
+        redoLength = length;
+    }
+
+    // Both return false if there is no recorded move to step over
+    public boolean undo() {
+        if (length == 0) return false;
+        length--;
+        return true;
+    }
+
+    public boolean redo() {
+        if (length == redoLength) return false;
+        length++;
+        return true;
+    }
+
+    public long getSeed() { return seed; }
+    public long getInitialBoard() { return initialBoard; }
+    public long getInitialScore() { return initialScore; }
+    public int getMoveCount() { return length; }
+    public int getRedoCount() { return redoLength - length; }
+
+    public Direction getMove(int index) {
+        return DIRECTIONS[moves[index] & 0x3];
+    }
+
+    //Replay Helpers
+
+    // Applies recorded move `index` to the board before it, including its spawn
+    public long applyMove(long board, int index) {
+        return applyMoveByte(board, moves[index]);
+    }
+
+    public int scoreOfMove(long board, int index) {
+        return BitBoard.scoreDelta(board, directionOf(moves[index]));
+    }
+
+    static Direction directionOf(int move) {
+        return DIRECTIONS[move & 0x3];
+    }
+
+    // Same rules as applyMove, for a move byte read straight from an encoded record
+    static long applyMoveByte(long board, int move) {
+        long moved = BitBoard.move(board, directionOf(move));
+        int cell = (move >>> 2) & 0xF;
+        long exponent = ((move >>> 6) & 1) == 1 ? 2 : 1;
+        return moved | (exponent << (cell * 4));
+    }
+
+    //Serialization
+
+    // Layout: magic, version, seed, initial board, initial score, move count, redo count, move bytes
+    public byte[] toBytes() {
+        return toBytes(redoLength);
+    }
+
+    // Current line of play only (no redo tail), e.g. for attaching to a high score
+    public byte[] toPlayedBytes() {
+        return toBytes(length);
+    }
+
+    // Size of toPlayedBytes(), for writing it with writePlayed
+    public int playedBytes() {
+        return HEADER_BYTES + length;
+    }
+
+    // Writes toPlayedBytes() into the buffer without an intermediate array
+    public void writePlayed(ByteBuffer buffer) {
+        write(buffer, length);
+    }
+
+    private byte[] toBytes(int storedMoves) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + storedMoves);
+        write(buffer, storedMoves);
+        return buffer.array();
+    }
+
+    private void write(ByteBuffer buffer, int storedMoves) {
+        buffer.putInt(MAGIC).put(FORMAT_VERSION)
+                .putLong(seed).putLong(initialBoard).putLong(initialScore)
+                .putInt(length).putInt(storedMoves - length)
+                .put(moves, 0, storedMoves);
+    }
+
+    public static GameRecord fromBytes(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a game record");
+        }
+        GameRecord record = new GameRecord(buffer.getLong(), buffer.getLong(), buffer.getLong());
+        int length = buffer.getInt();
+        int redo = buffer.getInt();
+        if (length < 0 || redo < 0 || (long) length + redo > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated game record");
+        }
+        record.moves = new byte[Math.max(64, length + redo)];
+        buffer.get(record.moves, 0, length + redo);
+        record.length = length;
+        record.redoLength = length + redo;
+        return record;
+    }
+
+    //Encoded Access
+
+    // Read an encoded record in place at `offset` in a buffer, e.g. a memory-mapped game log
+    static boolean isRecordAt(ByteBuffer buffer, int offset) {
+        return buffer.limit() - offset >= HEADER_BYTES
+                && buffer.getInt(offset) == MAGIC && buffer.get(offset + Integer.BYTES) == FORMAT_VERSION;
+    }
+
+    // Header plus played and redo moves
+    static int encodedLengthAt(ByteBuffer buffer, int offset) {
+        return HEADER_BYTES + buffer.getInt(offset + LENGTH_OFFSET) + buffer.getInt(offset + LENGTH_OFFSET + Integer.BYTES);
+    }
+}
@@ -0,0 +1,128 @@
+package com.pateda.game2048;
+
+import java.util.SplittableRandom;
+
+// Re-simulates a GameRecord once, keeping a keyframe every KEYFRAME_INTERVAL moves,
+// so the state at any move index is rebuilt by replaying at most KEYFRAME_INTERVAL - 1 moves.
+// Construction fails with IllegalArgumentException if the record contains an impossible move or spawn.
+public class GameReplay {
+
+    private static final int KEYFRAME_INTERVAL = 64;
+
+    private final GameRecord record;
+    private final long[] keyBoards;
+    private final long[] keyScores;
+
+    // State at the last seek
+    private long board;
+    private long score;
+
+    public GameReplay(GameRecord record) {
+        this.record = record;
+        int moveCount = record.getMoveCount();
+        int keyframes = moveCount / KEYFRAME_INTERVAL + 1;
+        this.keyBoards = new long[keyframes];
+        this.keyScores = new long[keyframes];
+
+        long currentBoard = record.getInitialBoard();
+        long currentScore = record.getInitialScore();
+        for (int i = 0; i < moveCount; i++) {
+            if (i % KEYFRAME_INTERVAL == 0) {
+                keyBoards[i / KEYFRAME_INTERVAL] = currentBoard;
+                keyScores[i / KEYFRAME_INTERVAL] = currentScore;
+            }
+            long moved = BitBoard.move(currentBoard, record.getMove(i));
+            long next = record.applyMove(currentBoard, i);
+            if (moved == currentBoard || BitBoard.countEmpty(next) != BitBoard.countEmpty(moved) - 1) {
+                throw new IllegalArgumentException("Invalid move or spawn at index " + i);
+            }
+            currentScore += record.scoreOfMove(currentBoard, i);
+            currentBoard = next;
+        }
+        if (moveCount % KEYFRAME_INTERVAL == 0) {
+            keyBoards[moveCount / KEYFRAME_INTERVAL] = currentBoard;
+            keyScores[moveCount / KEYFRAME_INTERVAL] = currentScore;
+        }
+        this.board = currentBoard;
+        this.score = currentScore;
+    }
+
+    public GameRecord getRecord() { return record; }
+    public int getMoveCount() { return record.getMoveCount(); }
+
+    // Moves to the state after `index` moves (0 = starting position)
+    public void seek(int index) {
+        int keyframe = index / KEYFRAME_INTERVAL;
+        long currentBoard = keyBoards[keyframe];
+        long currentScore = keyScores[keyframe];
+        for (int i = keyframe * KEYFRAME_INTERVAL; i < index; i++) {
+            currentScore += record.scoreOfMove(currentBoard, i);
+            currentBoard = record.applyMove(currentBoard, i);
+        }
+        board = currentBoard;
+        score = currentScore;
+    }
+
+    public long getBoard() { return board; }
+    public long getScore() { return score; }
+
+    public enum Check { INVALID, VALID, SEEDED }
+
+    // True if re-simulating the record ends exactly at the claimed board and score
+    public static boolean verify(GameRecord record, long claimedBoard, long claimedScore) {
+        try {
+            GameReplay replay = new GameReplay(record);
+            replay.seek(record.getMoveCount());
+            return replay.getBoard() == claimedBoard && replay.getScore() == claimedScore;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Stricter check for ranking, see check()
+    public static boolean verifySeeded(GameRecord record, long claimedBoard, long claimedScore) {
+        return check(record, claimedBoard, claimedScore, null) == Check.SEEDED;
+    }
+
+    // Everything loading needs from a record, in one pass. VALID: every move and spawn, including the redo tail, is
+    // possible, and the played moves end at the claimed board and score. SEEDED: also starts from its seed's opening
+    // (two spawns on an empty board, score 0) and every played spawn is the next draw of SplittableRandom(seed), so
+    // neither the start, the score nor the spawns can be made up. A non-null `history` receives the undo/redo steps
+    // that playing the record would have left behind; it is only complete if the result is not INVALID
+    public static Check check(GameRecord record, long claimedBoard, long claimedScore, MoveHistory history) {
+        SplittableRandom random = new SplittableRandom(record.getSeed());
+        long board = record.getInitialBoard();
+        long score = record.getInitialScore();
+        boolean seeded = score == 0 && board == BitBoard.spawnRandom(BitBoard.spawnRandom(0, random), random);
+
+        int played = record.getMoveCount();
+        int redo = record.getRedoCount();
+        long[] redoBoards = history == null ? null : new long[redo]; // Positions after each redo move
+        long[] redoScores = history == null ? null : new long[redo];
+        long playedBoard = board;
+        long playedScore = score;
+        for (int i = 0; i < played + redo; i++) {
+            long moved = BitBoard.move(board, record.getMove(i));
+            long next = record.applyMove(board, i);
+            if (moved == board || BitBoard.countEmpty(next) != BitBoard.countEmpty(moved) - 1) return Check.INVALID;
+            if (seeded && i < played) seeded = next == BitBoard.spawnRandom(moved, random);
+            if (history != null) history.push(board, score);
+            score += record.scoreOfMove(board, i);
+            board = next;
+            if (i + 1 == played) {
+                playedBoard = board;
+                playedScore = score;
+            } else if (i >= played && history != null) {
+                redoBoards[i - played] = board;
+                redoScores[i - played] = score;
+            }
+        }
+        if (playedBoard != claimedBoard || playedScore != claimedScore) return Check.INVALID;
+
+        // Every move was pushed as played; undo the redo tail back to the current position
+        if (history != null) {
+            for (int i = redo - 1; i >= 0; i--) history.undo(redoBoards[i], redoScores[i]);
+        }
+        return seeded ? Check.SEEDED : Check.VALID;
+    }
+}
@@ -0,0 +1,294 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Headless game server on the JDK's built-in HTTP server; needs no JavaFX. Every player gets a session in a
+// bounded SessionStore, and finished 4x4 games are ranked in the server's own Leaderboard. All responses are JSON.
+//
+//   POST /games?size=4&seed=42&player=name   new game
+//   GET  /games/{id}                         state
+//   POST /games/{id}/move?dir=left           move (up|down|left|right)
+//   POST /games/{id}/undo                    undo
+//   GET  /leaderboard?limit=10               best scores
+//   GET  /stats                              requests/sec, latency percentiles, sessions
+//
+// Java 17 has no virtual threads, so requests run on a fixed pool of platform threads. Handlers only block on
+// the occasional snapshot read of an evicted session, so a few threads per core keep the CPUs busy.
+public class GameServer {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final SessionStore sessions;
+    private final Leaderboard leaderboard;
+
+    private final LatencyHistogram latency = new LatencyHistogram("request");
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    public GameServer(int port, int threads, SessionStore sessions, Leaderboard leaderboard) throws IOException {
+        this.sessions = sessions;
+        this.leaderboard = leaderboard;
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "http-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(workers);
+        server.createContext("/games", this::handle);
+        server.createContext("/leaderboard", this::handle);
+        server.createContext("/stats", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting requests, then writes every changed session and the leaderboard to disk
+    public void stop() {
+        server.stop(1);
+        workers.shutdown();
+        sessions.close();
+        leaderboard.close();
+    }
+
+    //Routing
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        int status;
+        String body;
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/"); // ["", "games", id, action]
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+            Response response = route(method, path, query);
+            status = response.status();
+            body = response.body();
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            status = 500;
+            body = error("internal error");
+        }
+        if (status >= 400) errors.increment();
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        requests.increment();
+        latency.recordSince(start);
+    }
+
+    private record Response(int status, String body) {}
+
+    private Response route(String method, String[] path, Map<String, String> query) {
+        String resource = path.length > 1 ? path[1] : "";
+        switch (resource) {
+            case "games" -> {
+                if (path.length == 2 && method.equals("POST")) return createGame(query);
+                if (path.length == 3 && method.equals("GET")) return onSession(path[2], this::state);
+                if (path.length == 4 && method.equals("POST") && path[3].equals("move")) {
+                    Direction direction = parseDirection(query.get("dir"));
+                    return onSession(path[2], session -> move(session, direction));
+                }
+                if (path.length == 4 && method.equals("POST") && path[3].equals("undo")) {
+                    return onSession(path[2], this::undo);
+                }
+            }
+            case "leaderboard" -> {
+                if (method.equals("GET")) return leaderboard(query);
+            }
+            case "stats" -> {
+                if (method.equals("GET")) return new Response(200, stats());
+            }
+        }
+        return new Response(404, error("no such endpoint: " + method + " " + String.join("/", path)));
+    }
+
+    private Response onSession(String id, Function<SessionStore.Session, Response> action) {
+        Response response = sessions.withSession(id, action);
+        return response != null ? response : new Response(404, error("no such game: " + id));
+    }
+
+    //Endpoints
+
+    private Response createGame(Map<String, String> query) {
+        int size = Integer.parseInt(query.getOrDefault("size", String.valueOf(BitBoard.SIZE)));
+        if (size < BoardKernel.MIN_SIZE || size > BoardKernel.MAX_SIZE) {
+            throw new IllegalArgumentException("size must be " + BoardKernel.MIN_SIZE + " to " + BoardKernel.MAX_SIZE);
+        }
+        long seed = query.containsKey("seed") ? Long.parseLong(query.get("seed")) : ThreadLocalRandom.current().nextLong();
+        String player = query.getOrDefault("player", HighScore.ANONYMOUS);
+        SessionStore.Session session = sessions.create(player, seed, size);
+        return new Response(201, stateJson(session, null));
+    }
+
+    private Response state(SessionStore.Session session) {
+        return new Response(200, stateJson(session, null));
+    }
+
+    private Response move(SessionStore.Session session, Direction direction) {
+        GameController game = session.getGame();
+        if (game.hasWon() && !game.isContinuePlaying()) game.setContinuePlaying(true); // No win screen to dismiss
+        boolean moved = game.handleMove(direction);
+        if (moved) session.markChanged();
+        if (session.markRanked() && game.isRankable()) {
+            game.addHighScore(leaderboard, session.getPlayer(), game.getScore());
+        }
+        return new Response(200, stateJson(session, moved));
+    }
+
+    private Response undo(SessionStore.Session session) {
+        boolean undone = session.getGame().undo();
+        if (undone) session.markChanged();
+        return new Response(200, stateJson(session, undone));
+    }
+
+    private Response leaderboard(Map<String, String> query) {
+        int limit = Math.min(1000, Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_LIMIT))));
+        List<HighScore> top = leaderboard.top(limit);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < top.size(); i++) {
+            HighScore score = top.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"rank\":").append(i + 1)
+                    .append(",\"player\":").append(quote(score.getName()))
+                    .append(",\"score\":").append(score.getScore())
+                    .append(",\"date\":").append(quote(score.getDate())).append('}');
+        }
+        return new Response(200, sb.append(']').toString());
+    }
+
+    //JSON
+
+    // Written from the game's immutable state, so it needs no copy of the board
+    private static String stateJson(SessionStore.Session session, Boolean changed) {
+        GameState state = session.getGame().getState();
+        int size = state.size();
+        StringBuilder sb = new StringBuilder(64 + size * size * 6);
+        sb.append("{\"id\":\"").append(session.getId()).append('"')
+                .append(",\"size\":").append(size)
+                .append(",\"score\":").append(state.getScore())
+                .append(",\"gameOver\":").append(state.isGameOver())
+                .append(",\"won\":").append(state.hasWon());
+        if (changed != null) sb.append(",\"changed\":").append(changed);
+        sb.append(",\"board\":[");
+        for (int r = 0; r < size; r++) {
+            sb.append(r == 0 ? "[" : ",[");
+            for (int c = 0; c < size; c++) {
+                int exponent = state.exponentAt(r * size + c);
+                if (c > 0) sb.append(',');
+                sb.append(exponent == 0 ? 0 : 1 << exponent);
+            }
+            sb.append(']');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                sb.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                sb.append(String.format("\\u%04x", (int) ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(key, value);
+        }
+        return query;
+    }
+
+    private static Direction parseDirection(String name) {
+        if (name == null) throw new IllegalArgumentException("missing dir (up|down|left|right)");
+        try {
+            return Direction.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("bad dir: " + name);
+        }
+    }
+
+    //Stats
+
+    public String stats() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        LatencyStats stats = latency.stats();
+        return String.format("{\"requests\":%d,\"errors\":%d,\"requestsPerSecond\":%.1f,\"p50Micros\":%.1f,"
+                        + "\"p99Micros\":%.1f,\"maxMicros\":%.1f,\"sessions\":%d}",
+                requests.sum(), errors.sum(), requests.sum() / seconds, stats.getP50Micros(), stats.getP99Micros(),
+                stats.getMaxMicros(), sessions.size());
+    }
+
+    // Usage: GameServer [port] [max sessions] [idle timeout seconds] [data directory] [threads]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8048;
+        int maxSessions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        long idleSeconds = args.length > 2 ? Long.parseLong(args[2]) : 300;
+        Path dataDirectory = Path.of(args.length > 3 ? args[3] : "server-data");
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 4 * Runtime.getRuntime().availableProcessors();
+
+        SessionStore sessions = new SessionStore(maxSessions, idleSeconds, TimeUnit.SECONDS, dataDirectory.resolve("sessions"));
+        Leaderboard leaderboard = Leaderboard.open(dataDirectory.resolve("leaderboard"));
+        GameServer server = new GameServer(port, threads, sessions, leaderboard);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            System.out.println(server.stats());
+            System.out.println(sessions.summary());
+        }, "server-shutdown"));
+
+        server.start();
+        System.out.printf("Game server on port %d (%d threads, max %d sessions, idle timeout %d s, data in %s)%n",
+                server.getPort(), threads, maxSessions, idleSeconds, dataDirectory.toAbsolutePath());
+    }
+}
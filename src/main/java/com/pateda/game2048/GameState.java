@@ -0,0 +1,156 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// Immutable position of a game: packed board, score and flags; no history, record or spawn generator.
+// 4x4 boards are the single long of BitBoard; other sizes keep a private long[] in BoardKernel layout that is
+// never handed out. move() returns a new state instead of changing this one, so a state can be published through a
+// volatile field or AtomicReference and read by any thread without locks or copying.
+public final class GameState {
+
+    public static final int WINNING_EXPONENT = 11; // 2048
+
+    private static final int GAME_OVER = 1;
+    private static final int WON = 2;
+    private static final int CONTINUE_PLAYING = 4;
+
+    // Kernels keep scratch buffers, so each thread gets its own, one per board size
+    private static final ThreadLocal<BoardKernel[]> KERNELS =
+            ThreadLocal.withInitial(() -> new BoardKernel[BoardKernel.MAX_SIZE + 1]);
+
+    private final int size;
+    private final long board; // 4x4 only
+    private final long[] grid; // null for 4x4; owned by this state
+    private final long score;
+    private final int flags;
+
+    private GameState(int size, long board, long[] grid, long score, int flags) {
+        this.size = size;
+        this.board = board;
+        this.grid = grid;
+        this.score = score;
+        this.flags = flags;
+    }
+
+    //Factories
+
+    public static GameState of(long board, long score, boolean gameOver, boolean won, boolean continuePlaying) {
+        return new GameState(BitBoard.SIZE, board, null, score, flags(gameOver, won, continuePlaying));
+    }
+
+    // Copies the grid (BoardKernel layout, a single word for 4x4)
+    public static GameState of(int size, long[] grid, long score,
+                               boolean gameOver, boolean won, boolean continuePlaying) {
+        if (size == BitBoard.SIZE) return of(grid[0], score, gameOver, won, continuePlaying);
+        BoardKernel kernel = kernel(size);
+        if (grid.length != kernel.words()) throw new IllegalArgumentException("Expected " + kernel.words() + " words");
+        return new GameState(size, 0, grid.clone(), score, flags(gameOver, won, continuePlaying));
+    }
+
+    // Empty board with two spawned tiles, drawing one nextLong() per tile like GameController
+    public static GameState newGame(int size, RandomGenerator random) {
+        if (size == BitBoard.SIZE) {
+            return new GameState(size, BitBoard.spawnRandom(BitBoard.spawnRandom(0, random), random), null, 0, 0);
+        }
+        BoardKernel kernel = kernel(size);
+        long[] grid = kernel.newBoard();
+        kernel.spawnRandom(grid, random);
+        kernel.spawnRandom(grid, random);
+        return new GameState(size, 0, grid, 0, 0);
+    }
+
+    private static int flags(boolean gameOver, boolean won, boolean continuePlaying) {
+        return (gameOver ? GAME_OVER : 0) | (won ? WON : 0) | (continuePlaying ? CONTINUE_PLAYING : 0);
+    }
+
+    private static BoardKernel kernel(int size) {
+        if (size < BoardKernel.MIN_SIZE || size > BoardKernel.MAX_SIZE) return BoardKernel.forSize(size); // Throws
+        BoardKernel[] kernels = KERNELS.get();
+        if (kernels[size] == null) kernels[size] = BoardKernel.forSize(size);
+        return kernels[size];
+    }
+
+    //Transitions
+
+    // Same rules as GameController.handleMove: slide, score, spawn one tile from `random`, then check for a win and
+    // for game over. Returns this state if nothing moved, the game is over, or it is won and not continued
+    public GameState move(Direction direction, RandomGenerator random) {
+        if (!isPlayable()) return this;
+        if (grid == null) {
+            long moved = BitBoard.move(board, direction);
+            if (moved == board) return this;
+            long next = BitBoard.spawnRandom(moved, random);
+            long nextScore = score + BitBoard.scoreDelta(board, direction);
+            boolean won = hasWon() || BitBoard.maxExponent(moved) >= WINNING_EXPONENT;
+            return new GameState(size, next, null, nextScore,
+                    flags(BitBoard.isGameOver(next), won, isContinuePlaying()));
+        }
+        BoardKernel kernel = kernel(size);
+        long[] next = kernel.newBoard();
+        int points = kernel.move(grid, direction, next);
+        if (points < 0) return this;
+        boolean won = hasWon() || kernel.maxExponent(next) >= WINNING_EXPONENT;
+        kernel.spawnRandom(next, random);
+        return new GameState(size, 0, next, score + points, flags(kernel.isGameOver(next), won, isContinuePlaying()));
+    }
+
+    public GameState withContinuePlaying(boolean continuePlaying) {
+        if (continuePlaying == isContinuePlaying()) return this;
+        return new GameState(size, board, grid, score, flags(isGameOver(), hasWon(), continuePlaying));
+    }
+
+    //Accessors
+
+    public int size() { return size; }
+
+    // 4x4 board; 0 for other sizes, see getGrid()
+    public long getPackedBoard() { return board; }
+
+    // Copy of the board in BoardKernel layout (a single word for 4x4)
+    public long[] getGrid() { return grid == null ? new long[] { board } : grid.clone(); }
+
+    // Row-major cell index, r * size + c
+    public int exponentAt(int cell) {
+        return grid == null ? (int) (board >>> (cell << 2)) & 0xF : BoardKernel.get(grid, cell);
+    }
+
+    public int tileAt(int row, int col) {
+        return BitBoard.tileValue(exponentAt(row * size + col));
+    }
+
+    public long getScore() { return score; }
+    public boolean isGameOver() { return (flags & GAME_OVER) != 0; }
+    public boolean hasWon() { return (flags & WON) != 0; }
+    public boolean isContinuePlaying() { return (flags & CONTINUE_PLAYING) != 0; }
+
+    // False while the game is over, or won and waiting for the player to continue
+    public boolean isPlayable() {
+        return !isGameOver() && (!hasWon() || isContinuePlaying());
+    }
+
+    //Value Semantics
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameState other)) return false;
+        return size == other.size && board == other.board && score == other.score && flags == other.flags
+                && Arrays.equals(grid, other.grid);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * size + Long.hashCode(board);
+        hash = 31 * hash + Arrays.hashCode(grid);
+        hash = 31 * hash + Long.hashCode(score);
+        return 31 * hash + flags;
+    }
+
+    @Override
+    public String toString() {
+        return "GameState[" + size + "x" + size + ", score " + score + ", flags " + flags + "]";
+    }
+}
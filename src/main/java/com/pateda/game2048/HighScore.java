@@ -7,16 +7,19 @@ import java.time.format.DateTimeFormatter;
  //Represents a single high score entry containing player name, score, and date.
 
 public class HighScore implements Serializable, Comparable<HighScore> {
+    public static final String ANONYMOUS = "Anonymous";
+
     private String name;
     private long score;
     private String date;
+    private byte[] replay; // GameRecord bytes of the scoring game, null for entries saved before replays
 
     // Default constructor required for Jackson deserialization
     public HighScore() {}
 
     // Main constructor initializes fields and sets current date
     public HighScore(String name, long score) {
-        this.name = (name == null || name.trim().isEmpty()) ? "Anonymous" : name;
+        this.name = (name == null || name.trim().isEmpty()) ? ANONYMOUS : name;
         this.score = score;
         this.date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy"));
     }
@@ -32,6 +35,9 @@ public class HighScore implements Serializable, Comparable<HighScore> {
     public String getDate() { return date; }
     public void setDate(String date) { this.date = date; }
 
+    public byte[] getReplay() { return replay; }
+    public void setReplay(byte[] replay) { this.replay = replay; }
+
     // Sorts scores in descending order
     @Override
     public int compareTo(HighScore o) {
@@ -0,0 +1,94 @@
+package com.pateda.game2048;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram in the style of HdrHistogram: exact buckets below 32 ns, then 16 linear buckets per power of two
+// (at most ~6% relative error), fixed memory, and lock-free recording from any thread without allocating.
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS; // Values below this get a bucket each
+    private static final int HALF = SUB_COUNT / 2;
+    private static final long MAX_VALUE = (1L << 40) - 1; // ~18 minutes in nanoseconds; longer values are clamped
+    static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(index(value));
+        count.increment();
+        totalNanos.add(value);
+        long max;
+        while (value > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, value)) {
+            // Retry until this value is stored or a larger one is
+        }
+    }
+
+    // Bucket of a value: exact below SUB_COUNT, then HALF buckets per power of two keyed by the top SUB_BITS bits
+    static int index(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    static long lowestValue(int index) {
+        if (index < SUB_COUNT) return index;
+        int shift = index / HALF - 1;
+        return (long) (index % HALF + HALF) << shift;
+    }
+
+    // Largest value that falls into the same bucket as the given percentile (0-100), like HdrHistogram reports it
+    public long percentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) snapshot[i] = counts.get(i);
+        return percentile(snapshot, percentile, maxNanos.get());
+    }
+
+    // Same, over plain bucket counts filled through index(), e.g. by a single-threaded accumulator
+    static long percentile(long[] counts, double percentile, long max) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts[i];
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(lowestValue(i + 1) - 1, max);
+        }
+        return max;
+    }
+
+    public LatencyStats stats() {
+        long n = count.sum();
+        return new LatencyStats(n, n == 0 ? 0 : totalNanos.sum() / 1e3 / n, percentile(50) / 1e3,
+                percentile(90) / 1e3, percentile(99) / 1e3, percentile(99.9) / 1e3, maxNanos.get() / 1e3);
+    }
+
+    // Not atomic with concurrent recording; a few samples may land on either side of the reset
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+}
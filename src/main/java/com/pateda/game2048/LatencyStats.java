@@ -0,0 +1,41 @@
+package com.pateda.game2048;
+
+import javax.management.ConstructorParameters;
+
+// Summary of a LatencyHistogram in microseconds; shown by JConsole/VisualVM as one composite attribute
+public class LatencyStats {
+
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    @ConstructorParameters({"count", "meanMicros", "p50Micros", "p90Micros", "p99Micros", "p999Micros", "maxMicros"})
+    public LatencyStats(long count, double meanMicros, double p50Micros, double p90Micros, double p99Micros,
+                        double p999Micros, double maxMicros) {
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p90Micros = p90Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public long getCount() { return count; }
+    public double getMeanMicros() { return meanMicros; }
+    public double getP50Micros() { return p50Micros; }
+    public double getP90Micros() { return p90Micros; }
+    public double getP99Micros() { return p99Micros; }
+    public double getP999Micros() { return p999Micros; }
+    public double getMaxMicros() { return maxMicros; }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                count, meanMicros, p50Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
@@ -0,0 +1,644 @@
+package com.pateda.game2048;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Leaderboard store for any number of scores and players, kept apart from the game save.
+//
+// On disk (one directory):
+//   players.txt  one player name per line; the line number is the player id
+//   scores.log   append-only score records: player id, score, epoch day, length-prefixed replay (-1 = none)
+//   scores.idx   memory-mapped index: header (magic, version, count) then fixed 24-byte entries
+//                (log offset, score, player id, epoch day), so opening never parses the log
+//
+// In memory, entries are nodes of an order-statistic treap in primitive arrays, ordered by score (highest first,
+// earlier entries first on ties). Insertion, rank and k-th lookups are O(log n) expected; top-k is O(log n + k).
+// All public methods are synchronized, so headless runs can add scores from many threads. Only one process can
+// have a directory open at a time (a lock on scores.idx): each keeps its own log end and index count.
+// inMemory() keeps the same structures without files, e.g. when the home directory cannot be written.
+public class Leaderboard implements AutoCloseable {
+
+    public static final int TABLE_SIZE = 10; // Entries shown in the high score screen
+
+    private static final String DEFAULT_DIRECTORY = System.getProperty("user.home") + File.separator + "2048_leaderboard";
+    private static Leaderboard defaultInstance;
+    private static final Set<Path> OPEN_DIRECTORIES = ConcurrentHashMap.newKeySet();
+
+    private static final int INDEX_MAGIC = 0x4C424958; // "LBIX"
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER_BYTES = 16;
+    private static final int INDEX_ENTRY_BYTES = 24;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NIL = -1;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final Path directory;
+    private final FileChannel playersChannel;
+    private final FileChannel logChannel;
+    private final FileChannel indexChannel;
+    private ByteBuffer index; // Mapped from scores.idx unless in memory
+    private byte[] memoryLog; // scores.log of an in-memory store
+    private long logEnd;
+
+    // Players
+    private final List<String> playerNames = new ArrayList<>();
+    private final Map<String, Integer> playerIds = new HashMap<>();
+    private int[] playerBest = new int[16]; // Entry id of each player's best score
+
+    // Entries (entry id = node id = position in the index)
+    private int count;
+    private int capacity;
+    private long[] scores;
+    private int[] players;
+
+    // Treap links, subtree sizes and heap priorities
+    private int root = NIL;
+    private int[] left;
+    private int[] right;
+    private int[] size;
+    private int[] priority;
+    private int splitLeft; // Results of the last split
+    private int splitRight;
+
+    private Leaderboard(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory).toRealPath();
+        // Closing a second channel on scores.idx would drop this process's lock, so one is never opened
+        if (!OPEN_DIRECTORIES.add(this.directory)) throw new IOException("Leaderboard in " + directory + " is already open");
+        try {
+            playersChannel = FileChannel.open(directory.resolve("players.txt"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            logChannel = FileChannel.open(directory.resolve("scores.log"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            indexChannel = FileChannel.open(directory.resolve("scores.idx"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (indexChannel.tryLock() == null) { // Released when the channel is closed
+                throw new IOException("Leaderboard in " + directory + " is in use by another process");
+            }
+            allocate(INITIAL_CAPACITY);
+            Arrays.fill(playerBest, NIL);
+
+            loadPlayers();
+            loadIndex();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    // In-memory store: same queries, nothing is written to disk
+    private Leaderboard() {
+        directory = null;
+        playersChannel = null;
+        logChannel = null;
+        indexChannel = null;
+        memoryLog = new byte[4096];
+        allocate(INITIAL_CAPACITY);
+        Arrays.fill(playerBest, NIL);
+        index.putInt(0, INDEX_MAGIC).putInt(4, INDEX_VERSION).putLong(8, 0);
+    }
+
+    public static Leaderboard open(Path directory) throws IOException {
+        return new Leaderboard(directory);
+    }
+
+    public static Leaderboard inMemory() {
+        return new Leaderboard();
+    }
+
+    // Shared store in the user's home directory; on first use, imports the table embedded in older saves
+    public static synchronized Leaderboard getDefault() {
+        if (defaultInstance == null) {
+            try {
+                defaultInstance = open(Path.of(DEFAULT_DIRECTORY));
+            } catch (IOException e) {
+                // Read-only or full home directory, or another instance has it open: play on without saving scores
+                System.err.println("Cannot open leaderboard in " + DEFAULT_DIRECTORY + ", keeping scores in memory: "
+                        + e.getMessage());
+                defaultInstance = inMemory();
+            }
+            if (defaultInstance.size() == 0) {
+                for (HighScore legacy : SaveRepository.getDefault().getTopScores()) {
+                    defaultInstance.add(legacy.getName(), legacy.getScore(), parseDate(legacy.getDate()), legacy.getReplay());
+                }
+            }
+        }
+        return defaultInstance;
+    }
+
+    public static synchronized void closeDefault() {
+        if (defaultInstance != null) {
+            defaultInstance.close();
+            defaultInstance = null;
+        }
+    }
+
+    //Updates
+
+    // Adds a score dated today and returns its rank (1 = best)
+    public int add(String player, long score, byte[] replay) {
+        return add(player, score, LocalDate.now(), replay);
+    }
+
+    public synchronized int add(String player, long score, LocalDate date, byte[] replay) {
+        int playerId = playerId(player);
+        int epochDay = (int) date.toEpochDay();
+
+        // Log record first: the index never points past data that was not written
+        long offset = logEnd;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + (replay == null ? 0 : replay.length));
+        record.putInt(playerId).putLong(score).putInt(epochDay).putInt(replay == null ? -1 : replay.length);
+        if (replay != null) record.put(replay);
+        record.flip();
+        try {
+            writeLog(record, offset);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot append to leaderboard", e);
+        }
+        logEnd += record.limit();
+
+        int id = count;
+        if (id == capacity) allocate(capacity * 2);
+        int position = INDEX_HEADER_BYTES + id * INDEX_ENTRY_BYTES;
+        index.putLong(position, offset);
+        index.putLong(position + 8, score);
+        index.putInt(position + 16, playerId);
+        index.putInt(position + 20, epochDay);
+        index.putLong(8, id + 1L);
+
+        insert(id, score, playerId);
+        return rankOf(id);
+    }
+
+    //Queries
+
+    public synchronized int size() {
+        return count;
+    }
+
+    // Rank a new score would get (1 = best); ties rank below existing equal scores
+    public synchronized int rank(long score) {
+        int higher = 0;
+        int node = root;
+        while (node != NIL) {
+            if (scores[node] >= score) {
+                higher += sizeOf(left[node]) + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return higher + 1;
+    }
+
+    // True if the score would make the top tableSize
+    public synchronized boolean isHighScore(long score, int tableSize) {
+        return rank(score) <= tableSize;
+    }
+
+    // Best k entries, best first, with their replays
+    public synchronized List<HighScore> top(int k) {
+        List<HighScore> result = new ArrayList<>(Math.min(k, count));
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        while (result.size() < k && (node != NIL || depth > 0)) {
+            while (node != NIL) {
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = node;
+                node = left[node];
+            }
+            node = stack[--depth];
+            result.add(entry(node));
+            node = right[node];
+        }
+        return result;
+    }
+
+    // Entry at the given rank (1 = best), or null
+    public synchronized HighScore atRank(int rank) {
+        if (rank < 1 || rank > count) return null;
+        int k = rank - 1;
+        int node = root;
+        while (true) {
+            int leftSize = sizeOf(left[node]);
+            if (k < leftSize) {
+                node = left[node];
+            } else if (k == leftSize) {
+                return entry(node);
+            } else {
+                k -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    // Each player's best entry, best players first
+    public synchronized Map<String, HighScore> playerBests() {
+        Integer[] ids = new Integer[playerNames.size()];
+        int n = 0;
+        for (int player = 0; player < playerNames.size(); player++) {
+            if (playerBest[player] != NIL) ids[n++] = playerBest[player];
+        }
+        Arrays.sort(ids, 0, n, (a, b) -> before(a, b) ? -1 : 1);
+        Map<String, HighScore> bests = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            bests.put(playerNames.get(players[ids[i]]), entry(ids[i]));
+        }
+        return bests;
+    }
+
+    public synchronized HighScore playerBest(String player) {
+        Integer id = playerIds.get(normalizeName(player));
+        return id == null || playerBest[id] == NIL ? null : entry(playerBest[id]);
+    }
+
+    // Forces the files to disk
+    public synchronized void flush() {
+        if (indexChannel == null) return;
+        try {
+            playersChannel.force(false);
+            logChannel.force(false);
+            ((MappedByteBuffer) index).force();
+        } catch (IOException e) {
+            System.err.println("Error flushing leaderboard: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (index != null) flush();
+        try {
+            if (playersChannel != null) playersChannel.close();
+            if (logChannel != null) logChannel.close();
+            if (indexChannel != null) indexChannel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing leaderboard: " + e.getMessage());
+        }
+        if (directory != null) OPEN_DIRECTORIES.remove(directory);
+    }
+
+    //Treap
+
+    // Entry a sorts before entry b: higher score, then earlier entry
+    private boolean before(int a, int b) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private void insert(int id, long score, int playerId) {
+        scores[id] = score;
+        players[id] = playerId;
+        left[id] = NIL;
+        right[id] = NIL;
+        size[id] = 1;
+        priority[id] = mix(id);
+        count = id + 1;
+
+        split(root, id);
+        root = merge(merge(splitLeft, id), splitRight);
+
+        int best = playerBest[playerId];
+        if (best == NIL || before(id, best)) playerBest[playerId] = id;
+    }
+
+    // Splits the subtree into entries before `pivot` (splitLeft) and the rest (splitRight)
+    private void split(int node, int pivot) {
+        if (node == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+        } else if (before(node, pivot)) {
+            split(right[node], pivot);
+            right[node] = splitLeft;
+            update(node);
+            splitLeft = node;
+        } else {
+            split(left[node], pivot);
+            left[node] = splitRight;
+            update(node);
+            splitRight = node;
+        }
+    }
+
+    // Joins two subtrees where every entry of a sorts before every entry of b
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+
+    private int rankOf(int id) {
+        int rank = 0;
+        int node = root;
+        while (node != id) {
+            if (before(node, id)) {
+                rank += sizeOf(left[node]) + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return rank + sizeOf(left[id]) + 1;
+    }
+
+    private void update(int node) {
+        size[node] = 1 + sizeOf(left[node]) + sizeOf(right[node]);
+    }
+
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : size[node];
+    }
+
+    // Deterministic pseudo-random heap priority (SplitMix finalizer)
+    private static int mix(int id) {
+        long z = (id + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31));
+    }
+
+    //Storage
+
+    private void allocate(int newCapacity) {
+        capacity = newCapacity;
+        scores = scores == null ? new long[newCapacity] : Arrays.copyOf(scores, newCapacity);
+        players = players == null ? new int[newCapacity] : Arrays.copyOf(players, newCapacity);
+        left = left == null ? new int[newCapacity] : Arrays.copyOf(left, newCapacity);
+        right = right == null ? new int[newCapacity] : Arrays.copyOf(right, newCapacity);
+        size = size == null ? new int[newCapacity] : Arrays.copyOf(size, newCapacity);
+        priority = priority == null ? new int[newCapacity] : Arrays.copyOf(priority, newCapacity);
+        if (indexChannel == null) {
+            ByteBuffer grown = ByteBuffer.allocate(INDEX_HEADER_BYTES + newCapacity * INDEX_ENTRY_BYTES);
+            if (index != null) grown.put(0, index, 0, index.capacity());
+            index = grown;
+            return;
+        }
+        try {
+            // Mapping past the end grows the file
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_BYTES + (long) newCapacity * INDEX_ENTRY_BYTES);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map leaderboard index", e);
+        }
+    }
+
+    private void loadPlayers() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) playersChannel.size());
+        readFully(playersChannel, buffer, 0);
+        String text = new String(buffer.array(), StandardCharsets.UTF_8);
+        int start = 0;
+        for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+            registerPlayer(text.substring(start, end));
+            start = end + 1;
+        }
+        if (start < text.length()) {
+            // Unterminated last line from an interrupted write: terminate it so the next name starts cleanly
+            registerPlayer(text.substring(start));
+            writeFully(playersChannel, ByteBuffer.wrap(new byte[]{'\n'}), playersChannel.size());
+        }
+    }
+
+    // Rebuilds the treap from the index, then indexes any log records written after the last index update
+    private void loadIndex() throws IOException {
+        logEnd = logChannel.size();
+        long indexed = 0;
+        if (index.getInt(0) == INDEX_MAGIC) {
+            if (index.getInt(4) != INDEX_VERSION) throw new IOException("Unsupported leaderboard index version");
+            indexed = index.getLong(8);
+        } else {
+            index.putInt(0, INDEX_MAGIC).putInt(4, INDEX_VERSION).putLong(8, 0);
+        }
+
+        // A count the index file or the log cannot hold is corrupt: rebuild the index from the log instead
+        long mapped = (indexChannel.size() - INDEX_HEADER_BYTES) / INDEX_ENTRY_BYTES;
+        if (indexed < 0 || indexed > mapped || indexed > logEnd / RECORD_HEADER_BYTES) {
+            System.err.println("Rebuilding leaderboard index: it claims " + indexed + " entries");
+            indexed = 0;
+        }
+
+        // Records are appended in index order, so only the tail needs checking against the log
+        while (capacity < indexed) allocate(capacity * 2);
+        long nextOffset = 0;
+        while (indexed > 0) {
+            long offset = index.getLong(INDEX_HEADER_BYTES + (int) (indexed - 1) * INDEX_ENTRY_BYTES);
+            // Offsets grow from 0; entries past a too-high count are zeroed and fail this
+            boolean ordered = indexed == 1
+                    ? offset == 0
+                    : offset > index.getLong(INDEX_HEADER_BYTES + (int) (indexed - 2) * INDEX_ENTRY_BYTES);
+            long recordEnd = ordered && offset + RECORD_HEADER_BYTES <= logEnd ? recordEnd(offset) : Long.MAX_VALUE;
+            if (recordEnd <= logEnd) {
+                nextOffset = recordEnd;
+                break;
+            }
+            indexed--; // Log lost the record this entry points to
+        }
+        bulkLoad((int) indexed);
+
+        // Records appended after the index was last written (e.g. a crash between the two writes)
+        while (nextOffset + RECORD_HEADER_BYTES <= logEnd) {
+            long recordEnd = recordEnd(nextOffset);
+            if (recordEnd > logEnd) break;
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            readFully(logChannel, header, nextOffset);
+            int playerId = header.getInt(0);
+            int id = count;
+            if (id == capacity) allocate(capacity * 2);
+            int position = INDEX_HEADER_BYTES + id * INDEX_ENTRY_BYTES;
+            index.putLong(position, nextOffset);
+            index.putLong(position + 8, header.getLong(4));
+            index.putInt(position + 16, playerId);
+            index.putInt(position + 20, header.getInt(12));
+            insertLoaded(id, header.getLong(4), playerId);
+            nextOffset = recordEnd;
+        }
+        if (nextOffset < logEnd) logChannel.truncate(nextOffset); // Drop a torn last record
+        logEnd = nextOffset;
+        index.putLong(8, count);
+    }
+
+    // Builds the treap for the first n index entries in O(n log n) with one primitive sort, instead of n inserts
+    private void bulkLoad(int n) {
+        long maxScore = 0;
+        for (int id = 0; id < n; id++) {
+            int position = INDEX_HEADER_BYTES + id * INDEX_ENTRY_BYTES;
+            scores[id] = index.getLong(position + 8);
+            players[id] = index.getInt(position + 16);
+            maxScore = Math.max(maxScore, scores[id]);
+            if (scores[id] < 0) maxScore = Long.MAX_VALUE;
+        }
+        if (maxScore >= 1L << 32) {
+            // Scores too large to pack into a sort key; fall back to plain inserts
+            for (int id = 0; id < n; id++) insertLoaded(id, scores[id], players[id]);
+            return;
+        }
+
+        // Sort key: inverted score, then entry id, i.e. leaderboard order
+        long[] order = new long[n];
+        for (int id = 0; id < n; id++) order[id] = ((0xFFFFFFFFL - scores[id]) << 31) | id;
+        Arrays.sort(order);
+
+        // Cartesian tree over the sorted entries with the heap priorities (right spine on a stack)
+        int[] stack = new int[64];
+        int depth = 0;
+        for (long key : order) {
+            int id = (int) (key & Integer.MAX_VALUE);
+            priority[id] = mix(id);
+            right[id] = NIL;
+            int last = NIL;
+            while (depth > 0 && priority[stack[depth - 1]] < priority[id]) last = stack[--depth];
+            left[id] = last;
+            if (depth > 0) right[stack[depth - 1]] = id;
+            if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = id;
+
+            while (players[id] >= playerNames.size()) registerPlayer(HighScore.ANONYMOUS); // Names line was lost
+            if (playerBest[players[id]] == NIL) playerBest[players[id]] = id; // First in order is the best
+        }
+        root = depth > 0 ? stack[0] : NIL;
+        count = n;
+
+        // Subtree sizes: children come before parents when nodes are visited in reverse pre-order
+        int[] preorder = new int[n];
+        int visited = 0;
+        depth = 0;
+        if (root != NIL) stack[depth++] = root;
+        while (depth > 0) {
+            int node = stack[--depth];
+            preorder[visited++] = node;
+            if (depth + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+            if (left[node] != NIL) stack[depth++] = left[node];
+            if (right[node] != NIL) stack[depth++] = right[node];
+        }
+        for (int i = n - 1; i >= 0; i--) update(preorder[i]);
+    }
+
+    private void insertLoaded(int id, long score, int playerId) {
+        while (playerId >= playerNames.size()) registerPlayer(HighScore.ANONYMOUS); // Names line was lost
+        insert(id, score, playerId);
+    }
+
+    private long recordEnd(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        readFully(logChannel, header, offset);
+        int replayLength = header.getInt(16);
+        return offset + RECORD_HEADER_BYTES + Math.max(0, replayLength);
+    }
+
+    // Builds the HighScore for an entry, reading only its log record
+    private HighScore entry(int id) {
+        int position = INDEX_HEADER_BYTES + id * INDEX_ENTRY_BYTES;
+        long offset = index.getLong(position);
+        HighScore highScore = new HighScore();
+        highScore.setName(playerNames.get(players[id]));
+        highScore.setScore(scores[id]);
+        highScore.setDate(LocalDate.ofEpochDay(index.getInt(position + 20)).format(DATE_FORMAT));
+        try {
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            readLog(header, offset);
+            int replayLength = header.getInt(16);
+            if (replayLength > 0) {
+                ByteBuffer replay = ByteBuffer.allocate(replayLength);
+                readLog(replay, offset + RECORD_HEADER_BYTES);
+                highScore.setReplay(replay.array());
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading leaderboard replay: " + e.getMessage());
+        }
+        return highScore;
+    }
+
+    private int playerId(String player) {
+        String name = normalizeName(player);
+        Integer id = playerIds.get(name);
+        if (id != null) return id;
+        try {
+            if (playersChannel != null) {
+                writeFully(playersChannel, ByteBuffer.wrap((name + "\n").getBytes(StandardCharsets.UTF_8)),
+                        playersChannel.size());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot append to leaderboard players", e);
+        }
+        return registerPlayer(name);
+    }
+
+    private int registerPlayer(String name) {
+        int id = playerNames.size();
+        playerNames.add(name);
+        playerIds.putIfAbsent(name, id);
+        if (id == playerBest.length) {
+            playerBest = Arrays.copyOf(playerBest, id * 2);
+            Arrays.fill(playerBest, id, playerBest.length, NIL);
+        }
+        return id;
+    }
+
+    // Same default as HighScore; names are stored one per line
+    private static String normalizeName(String name) {
+        if (name == null || name.trim().isEmpty()) return HighScore.ANONYMOUS;
+        return name.replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return date == null ? LocalDate.now() : LocalDate.parse(date, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return LocalDate.now();
+        }
+    }
+
+    private void writeLog(ByteBuffer record, long offset) throws IOException {
+        if (logChannel != null) {
+            writeFully(logChannel, record, offset);
+            return;
+        }
+        if (offset + record.remaining() > memoryLog.length) {
+            memoryLog = Arrays.copyOf(memoryLog, (int) Math.max(memoryLog.length * 2L, offset + record.remaining()));
+        }
+        record.get(memoryLog, (int) offset, record.remaining());
+    }
+
+    private void readLog(ByteBuffer buffer, long offset) throws IOException {
+        if (logChannel != null) {
+            readFully(logChannel, buffer, offset);
+            return;
+        }
+        buffer.put(memoryLog, (int) offset, buffer.remaining()).flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Unexpected end of file");
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,123 @@
+package com.pateda.game2048;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Load generator for GameServer: each client creates a game and plays random moves (with the odd undo and state
+// read) as fast as the server answers, starting a new game whenever one ends. Reports requests/sec and latency
+// percentiles as seen by the clients, then the server's own /stats.
+public class LoadGenerator {
+
+    private static final String[] DIRECTIONS = {"up", "down", "left", "right"};
+    private static final Pattern ID = Pattern.compile("\"id\":\"([0-9a-f]+)\"");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final LatencyHistogram latency = new LatencyHistogram("client");
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder gamesStarted = new LongAdder();
+
+    public LoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    // Runs the clients for the given time, then prints the report
+    public void run(int clients, long seconds, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            long seed = i;
+            threads[i] = new Thread(() -> playUntil(deadline, size, new SplittableRandom(seed)), "load-client-" + i);
+            threads[i].start();
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) thread.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        LatencyStats stats = latency.stats();
+        System.out.printf("%d clients, %.1f s: %d requests (%.0f req/s), %d errors, %d games started%n",
+                clients, elapsed, requests.sum(), requests.sum() / elapsed, errors.sum(), gamesStarted.sum());
+        System.out.printf("Latency: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                stats.getP50Micros() / 1e3, stats.getP90Micros() / 1e3, stats.getP99Micros() / 1e3,
+                stats.getP999Micros() / 1e3, stats.getMaxMicros() / 1e3);
+        String serverStats = send("GET", "/stats");
+        if (serverStats != null) System.out.println("Server: " + serverStats);
+    }
+
+    private void playUntil(long deadline, int size, SplittableRandom random) {
+        String id = null;
+        while (System.nanoTime() < deadline) {
+            if (id == null) {
+                id = newGame(size, random.nextLong());
+                if (id == null) continue;
+            }
+            int action = random.nextInt(100);
+            String body;
+            if (action < 2) {
+                body = send("POST", "/games/" + id + "/undo");
+            } else if (action < 5) {
+                body = send("GET", "/games/" + id);
+            } else {
+                body = send("POST", "/games/" + id + "/move?dir=" + DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+            }
+            if (body == null || body.contains("\"gameOver\":true")) id = null;
+        }
+    }
+
+    private String newGame(int size, long seed) {
+        String body = send("POST", "/games?size=" + size + "&seed=" + seed + "&player=load");
+        if (body == null) return null;
+        Matcher matcher = ID.matcher(body);
+        if (!matcher.find()) return null;
+        gamesStarted.increment();
+        return matcher.group(1);
+    }
+
+    // Response body, or null on a transport error or an error status
+    private String send(String method, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            latency.recordSince(start);
+            requests.increment();
+            if (response.statusCode() >= 400) {
+                errors.increment();
+                return null;
+            }
+            return response.body();
+        } catch (IOException e) {
+            errors.increment();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // Usage: LoadGenerator [server url] [clients] [seconds] [board size]
+    public static void main(String[] args) throws InterruptedException {
+        String url = args.length > 0 ? args[0] : "http://localhost:8048";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 30;
+        int size = args.length > 3 ? Integer.parseInt(args[3]) : BitBoard.SIZE;
+
+        System.out.printf("Load test against %s: %d clients for %d s on %dx%d boards%n", url, clients, seconds, size, size);
+        new LoadGenerator(url).run(clients, seconds, size);
+    }
+}
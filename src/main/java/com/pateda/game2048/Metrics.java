@@ -0,0 +1,83 @@
+package com.pateda.game2048;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histograms and counters for the game's hot paths, published as a platform MXBean for JConsole/VisualVM.
+// ENABLED is a static final, so with -Dgame2048.metrics=false every `if (Metrics.ENABLED)` block is removed by the
+// JIT and recording costs nothing. The desktop game turns it on by default; headless tools leave it off.
+public final class Metrics implements GameMetricsMXBean {
+
+    public static final boolean ENABLED = Boolean.getBoolean("game2048.metrics");
+
+    private static final String OBJECT_NAME = "com.pateda.game2048:type=GameMetrics";
+
+    public static final LatencyHistogram HANDLE_MOVE = new LatencyHistogram("handleMove");
+    public static final LatencyHistogram SPAWN_TILE = new LatencyHistogram("spawnNewTile");
+    public static final LatencyHistogram CHECK_GAME_OVER = new LatencyHistogram("checkGameOver");
+    public static final LatencyHistogram SAVE_GAME = new LatencyHistogram("saveGame");
+    public static final LatencyHistogram LOAD_GAME = new LatencyHistogram("loadGame");
+    public static final LatencyHistogram UPDATE_BOARD_UI = new LatencyHistogram("updateBoardUI");
+    public static final LatencyHistogram LOAD_SCENE = new LatencyHistogram("loadScene");
+    private static final List<LatencyHistogram> HISTOGRAMS = List.of(HANDLE_MOVE, SPAWN_TILE, CHECK_GAME_OVER,
+            SAVE_GAME, LOAD_GAME, UPDATE_BOARD_UI, LOAD_SCENE);
+
+    public static final LongAdder MOVES = new LongAdder(); // Moves that changed the board
+    public static final LongAdder UNDOS = new LongAdder();
+    public static final LongAdder GAMES_STARTED = new LongAdder();
+    public static final LongAdder GAMES_FINISHED = new LongAdder();
+
+    private static boolean registered;
+
+    private Metrics() {
+    }
+
+    // Registers the MXBean once; does nothing when metrics are off
+    public static synchronized void register() {
+        if (!ENABLED || registered) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Metrics(), new ObjectName(OBJECT_NAME));
+            registered = true;
+        } catch (JMException e) {
+            System.err.println("Error registering metrics MBean: " + e.getMessage());
+        }
+    }
+
+    // One line per histogram plus the counters, for the exit log
+    public static String summary() {
+        StringBuilder sb = new StringBuilder(String.format("Metrics: %d moves, %d undos, %d games started, %d finished",
+                MOVES.sum(), UNDOS.sum(), GAMES_STARTED.sum(), GAMES_FINISHED.sum()));
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            sb.append(String.format("%n  %-14s %s", histogram.getName(), histogram.stats()));
+        }
+        return sb.toString();
+    }
+
+    //MXBean
+
+    @Override public long getMoves() { return MOVES.sum(); }
+    @Override public long getUndos() { return UNDOS.sum(); }
+    @Override public long getGamesStarted() { return GAMES_STARTED.sum(); }
+    @Override public long getGamesFinished() { return GAMES_FINISHED.sum(); }
+    @Override public double getTimeToFirstFrameMillis() { return StartupTimer.timeToFirstFrameMillis(); }
+
+    @Override public LatencyStats getHandleMove() { return HANDLE_MOVE.stats(); }
+    @Override public LatencyStats getSpawnTile() { return SPAWN_TILE.stats(); }
+    @Override public LatencyStats getCheckGameOver() { return CHECK_GAME_OVER.stats(); }
+    @Override public LatencyStats getSaveGame() { return SAVE_GAME.stats(); }
+    @Override public LatencyStats getLoadGame() { return LOAD_GAME.stats(); }
+    @Override public LatencyStats getUpdateBoardUI() { return UPDATE_BOARD_UI.stats(); }
+    @Override public LatencyStats getLoadScene() { return LOAD_SCENE.stats(); }
+
+    @Override
+    public void reset() {
+        HISTOGRAMS.forEach(LatencyHistogram::reset);
+        MOVES.reset();
+        UNDOS.reset();
+        GAMES_STARTED.reset();
+        GAMES_FINISHED.reset();
+    }
+}
@@ -0,0 +1,207 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+// Monte Carlo player: plays rollouts to the end of the game after each legal move and picks the best mean score.
+// Rollouts run in rounds on a work-stealing pool. Every task owns a SplittableRandom split from the search root
+// and returns its sums, so there is no shared mutable state. Stops early once one move clearly dominates.
+public class MonteCarloPlayer implements Strategy {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int ROLLOUTS_PER_TASK = 8;
+    private static final double CONFIDENCE_Z = 2.0; // ~95% intervals for the dominance test
+    private static final int MIN_ROUNDS = 2;
+
+    private final int maxRolloutsPerMove;
+    private final int rolloutsPerRound;
+    private final long timeBudgetNanos; // 0 = no time limit
+    private final Strategy rolloutPolicy;
+    private final ForkJoinPool pool;    // null = run in the caller's pool (or the common pool)
+
+    public record Result(Direction move, int rounds, long rollouts, long nanos) implements MoveAdvice {
+        public double rolloutsPerSecond() {
+            return nanos == 0 ? 0 : rollouts * 1e9 / nanos;
+        }
+
+        @Override
+        public String summary() {
+            return String.format("%d rollouts in %d rounds, %.0fk rollouts/s", rollouts, rounds, rolloutsPerSecond() / 1e3);
+        }
+    }
+
+    public MonteCarloPlayer(int maxRolloutsPerMove, int rolloutsPerRound, long timeBudget, TimeUnit unit,
+                            Strategy rolloutPolicy, ForkJoinPool pool) {
+        this.maxRolloutsPerMove = maxRolloutsPerMove;
+        this.rolloutsPerRound = rolloutsPerRound;
+        this.timeBudgetNanos = unit.toNanos(timeBudget);
+        this.rolloutPolicy = rolloutPolicy;
+        this.pool = pool;
+    }
+
+    // Fixed rollout count with random rollouts, for headless runs inside the simulator's pool
+    public static MonteCarloPlayer headless(int rolloutsPerMove) {
+        return new MonteCarloPlayer(rolloutsPerMove, Math.max(1, rolloutsPerMove / 4), 0, TimeUnit.NANOSECONDS,
+                Strategy.random(), null);
+    }
+
+    @Override
+    public Direction chooseMove(long board, RandomGenerator random) {
+        return search(board, random.nextLong()).move();
+    }
+
+    public CompletableFuture<Result> searchAsync(long board, long seed) {
+        return CompletableFuture.supplyAsync(() -> search(board, seed), pool != null ? pool : ForkJoinPool.commonPool());
+    }
+
+    public Result search(long board, long seed) {
+        long start = System.nanoTime();
+        long deadline = timeBudgetNanos > 0 ? start + timeBudgetNanos : Long.MAX_VALUE;
+        SplittableRandom root = new SplittableRandom(seed);
+
+        List<Direction> moves = new ArrayList<>(DIRECTIONS.length);
+        List<Long> movedBoards = new ArrayList<>(DIRECTIONS.length);
+        for (Direction direction : DIRECTIONS) {
+            long moved = BitBoard.move(board, direction);
+            if (moved == board) continue;
+            moves.add(direction);
+            movedBoards.add(moved);
+        }
+        if (moves.size() <= 1) {
+            return new Result(moves.isEmpty() ? null : moves.get(0), 0, 0, System.nanoTime() - start);
+        }
+
+        int count = moves.size();
+        double[] sum = new double[count];
+        double[] sumSquares = new double[count];
+        long perMove = 0;
+        int rounds = 0;
+
+        while (perMove < maxRolloutsPerMove) {
+            int batch = (int) Math.min(rolloutsPerRound, maxRolloutsPerMove - perMove);
+            List<RolloutTask> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long moved = movedBoards.get(i);
+                tasks.add(new RolloutTask(moved, BitBoard.scoreDelta(board, moves.get(i)), batch, root.split(), rolloutPolicy));
+            }
+            RoundTask round = new RoundTask(tasks);
+            if (pool == null || ForkJoinTask.inForkJoinPool()) round.invoke();
+            else pool.invoke(round);
+
+            for (int i = 0; i < count; i++) {
+                double[] totals = tasks.get(i).join();
+                sum[i] += totals[0];
+                sumSquares[i] += totals[1];
+            }
+            perMove += batch;
+            rounds++;
+
+            if (System.nanoTime() >= deadline) break;
+            if (rounds >= MIN_ROUNDS && dominantMove(sum, sumSquares, perMove) >= 0) break;
+        }
+
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (sum[i] > sum[best]) best = i;
+        }
+        return new Result(moves.get(best), rounds, perMove * count, System.nanoTime() - start);
+    }
+
+    // Index of the move whose lower confidence bound beats every other upper bound, or -1
+    private static int dominantMove(double[] sum, double[] sumSquares, long n) {
+        int best = 0;
+        for (int i = 1; i < sum.length; i++) {
+            if (sum[i] > sum[best]) best = i;
+        }
+        double bestLower = sum[best] / n - CONFIDENCE_Z * standardError(sum[best], sumSquares[best], n);
+        for (int i = 0; i < sum.length; i++) {
+            if (i == best) continue;
+            double upper = sum[i] / n + CONFIDENCE_Z * standardError(sum[i], sumSquares[i], n);
+            if (upper >= bestLower) return -1;
+        }
+        return best;
+    }
+
+    private static double standardError(double sum, double sumSquares, long n) {
+        if (n < 2) return Double.POSITIVE_INFINITY;
+        double mean = sum / n;
+        double variance = Math.max(0, (sumSquares - n * mean * mean) / (n - 1));
+        return Math.sqrt(variance / n);
+    }
+
+    // Plays one game from the given board to the end and returns the points scored
+    static long rollout(long board, Strategy policy, RandomGenerator random) {
+        long points = 0;
+        while (!BitBoard.isGameOver(board)) {
+            Direction direction = policy.chooseMove(board, random);
+            if (direction == null) break;
+            points += BitBoard.scoreDelta(board, direction);
+            board = BitBoard.spawnRandom(BitBoard.move(board, direction), random);
+        }
+        return points;
+    }
+
+    //Tasks
+
+    private static final class RoundTask extends RecursiveTask<Void> {
+        private final List<RolloutTask> tasks;
+
+        RoundTask(List<RolloutTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected Void compute() {
+            invokeAll(tasks);
+            return null;
+        }
+    }
+
+    // Runs a batch of rollouts after one root move; returns {sum, sum of squares} of the outcomes
+    private static final class RolloutTask extends RecursiveTask<double[]> {
+        private final long movedBoard;
+        private final int moveScore;
+        private final int rollouts;
+        private final SplittableRandom random;
+        private final Strategy policy;
+
+        RolloutTask(long movedBoard, int moveScore, int rollouts, SplittableRandom random, Strategy policy) {
+            this.movedBoard = movedBoard;
+            this.moveScore = moveScore;
+            this.rollouts = rollouts;
+            this.random = random;
+            this.policy = policy;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (rollouts > ROLLOUTS_PER_TASK) {
+                int half = rollouts / 2;
+                RolloutTask left = new RolloutTask(movedBoard, moveScore, half, random.split(), policy);
+                RolloutTask right = new RolloutTask(movedBoard, moveScore, rollouts - half, random.split(), policy);
+                invokeAll(left, right);
+                double[] a = left.join();
+                double[] b = right.join();
+                return new double[]{a[0] + b[0], a[1] + b[1]};
+            }
+
+            double sum = 0;
+            double sumSquares = 0;
+            for (int i = 0; i < rollouts; i++) {
+                double value = moveScore + rollout(BitBoard.spawnRandom(movedBoard, random), policy, random);
+                sum += value;
+                sumSquares += value * value;
+            }
+            return new double[]{sum, sumSquares};
+        }
+    }
+}
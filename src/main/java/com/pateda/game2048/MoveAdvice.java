@@ -0,0 +1,9 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+// A move suggested by one of the AI players, with a short human-readable note on how it was found
+public interface MoveAdvice {
+    Direction move();
+    String summary();
+}
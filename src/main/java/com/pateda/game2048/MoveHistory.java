@@ -0,0 +1,200 @@
+package com.pateda.game2048;
+
+import java.nio.ByteBuffer;
+
+// Undo/redo history of packed boards and scores in a growable ring buffer of primitives.
+// Slots [0, undoCount) hold states to undo to (oldest first); the next redoCount slots hold states to redo to.
+// Undo and redo swap the current state with the neighbouring slot, so neither allocates.
+// A board is one long for 3x3/4x4 and `words` longs for larger boards (see BoardKernel); slot i owns
+// boards[i * words, (i + 1) * words).
+public class MoveHistory {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte MULTI_WORD_FORMAT_VERSION = 2; // Adds the words per board
+
+    private final int maxEntries; // Oldest entries are dropped beyond this; Integer.MAX_VALUE = whole game
+    private final int words;
+    private long[] boards;
+    private long[] scores;
+    private int head;      // Physical index of the oldest entry
+    private int undoCount;
+    private int redoCount;
+
+    // State restored by the last successful undo/redo
+    private long restoredBoard;
+    private long restoredScore;
+
+    public MoveHistory() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public MoveHistory(int maxEntries) {
+        this(1, maxEntries);
+    }
+
+    public MoveHistory(int words, int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.words = words;
+        this.boards = new long[INITIAL_CAPACITY * words];
+        this.scores = new long[INITIAL_CAPACITY];
+    }
+
+    // Records the state before a move; discards anything that could have been redone
+    public void push(long board, long score) {
+        int slot = nextSlot();
+        boards[slot] = board;
+        scores[slot] = score;
+    }
+
+    public void push(long[] board, long score) {
+        int slot = nextSlot();
+        System.arraycopy(board, 0, boards, slot * words, words);
+        scores[slot] = score;
+    }
+
+    private int nextSlot() {
+        redoCount = 0;
+        if (undoCount == maxEntries) {
+            head = (head + 1) & (scores.length - 1);
+            undoCount--;
+        } else if (undoCount == scores.length) {
+            grow();
+        }
+        return slot(undoCount++);
+    }
+
+    public boolean undo(long currentBoard, long currentScore) {
+        if (undoCount == 0) return false;
+        undoCount--;
+        redoCount++;
+        swap(slot(undoCount), currentBoard, currentScore);
+        return true;
+    }
+
+    public boolean redo(long currentBoard, long currentScore) {
+        if (redoCount == 0) return false;
+        swap(slot(undoCount), currentBoard, currentScore);
+        undoCount++;
+        redoCount--;
+        return true;
+    }
+
+    // Multi-word variants: the restored board is swapped into `currentBoard` in place
+    public boolean undo(long[] currentBoard, long currentScore) {
+        if (undoCount == 0) return false;
+        undoCount--;
+        redoCount++;
+        swap(slot(undoCount), currentBoard, currentScore);
+        return true;
+    }
+
+    public boolean redo(long[] currentBoard, long currentScore) {
+        if (redoCount == 0) return false;
+        swap(slot(undoCount), currentBoard, currentScore);
+        undoCount++;
+        redoCount--;
+        return true;
+    }
+
+    public boolean canUndo() { return undoCount > 0; }
+    public boolean canRedo() { return redoCount > 0; }
+    public int getUndoCount() { return undoCount; }
+    public int getRedoCount() { return redoCount; }
+    public int getWords() { return words; }
+    public long getRestoredBoard() { return restoredBoard; }
+    public long getRestoredScore() { return restoredScore; }
+
+    public void clear() {
+        head = 0;
+        undoCount = 0;
+        redoCount = 0;
+    }
+
+    //Serialization
+
+    // Layout: version, [words if > 1,] undo count, redo count, then (board words, score) longs oldest first.
+    // Single-word histories keep version 1 so older builds can still read 4x4 saves.
+    public byte[] toBytes() {
+        int entries = undoCount + redoCount;
+        boolean multiWord = words > 1;
+        ByteBuffer buffer = ByteBuffer.allocate(1 + (multiWord ? 3 : 2) * Integer.BYTES
+                + entries * (words + 1) * Long.BYTES);
+        buffer.put(multiWord ? MULTI_WORD_FORMAT_VERSION : FORMAT_VERSION);
+        if (multiWord) buffer.putInt(words);
+        buffer.putInt(undoCount).putInt(redoCount);
+        for (int i = 0; i < entries; i++) {
+            int slot = slot(i);
+            for (int w = 0; w < words; w++) buffer.putLong(boards[slot * words + w]);
+            buffer.putLong(scores[slot]);
+        }
+        return buffer.array();
+    }
+
+    public void fromBytes(byte[] data) {
+        clear();
+        if (data == null || data.length == 0) return;
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION && version != MULTI_WORD_FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown history format");
+        }
+        int storedWords = version == MULTI_WORD_FORMAT_VERSION ? buffer.getInt() : 1;
+        if (storedWords != words) throw new IllegalArgumentException("History is for a different board size");
+        int undo = buffer.getInt();
+        int redo = buffer.getInt();
+        long entries = buffer.remaining() / ((words + 1) * Long.BYTES);
+        if (undo < 0 || redo < 0 || (long) undo + redo > entries) throw new IllegalArgumentException("Truncated history");
+        // Beyond maxEntries, keep the entries nearest the saved position: the newest undo steps, then the next redo steps
+        int keptUndo = Math.min(undo, maxEntries);
+        int keptRedo = Math.min(redo, maxEntries - keptUndo);
+        long[] board = new long[words];
+        for (int i = 0; i < undo + keptRedo; i++) {
+            for (int w = 0; w < words; w++) board[w] = buffer.getLong();
+            long score = buffer.getLong();
+            if (i >= undo - keptUndo) push(board, score);
+        }
+        // Everything was pushed as undo entries; move the tail back to the redo side
+        undoCount -= keptRedo;
+        redoCount = keptRedo;
+    }
+
+    //Helpers
+
+    private int slot(int index) {
+        return (head + index) & (scores.length - 1);
+    }
+
+    private void swap(int slot, long currentBoard, long currentScore) {
+        restoredBoard = boards[slot];
+        restoredScore = scores[slot];
+        boards[slot] = currentBoard;
+        scores[slot] = currentScore;
+    }
+
+    private void swap(int slot, long[] currentBoard, long currentScore) {
+        int base = slot * words;
+        for (int w = 0; w < words; w++) {
+            long stored = boards[base + w];
+            boards[base + w] = currentBoard[w];
+            currentBoard[w] = stored;
+        }
+        restoredScore = scores[slot];
+        scores[slot] = currentScore;
+    }
+
+    // Doubles capacity and unrolls the ring so the oldest entry is at index 0
+    private void grow() {
+        int size = scores.length;
+        long[] newBoards = new long[size * 2 * words];
+        long[] newScores = new long[size * 2];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(boards, slot(i) * words, newBoards, i * words, words);
+            newScores[i] = scores[slot(i)];
+        }
+        boards = newBoards;
+        scores = newScores;
+        head = 0;
+    }
+}
@@ -0,0 +1,205 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+// N-tuple network board evaluator: each tuple is a fixed set of cells whose exponents index a float lookup table.
+// Every tuple is applied in all 8 board symmetries with shared weights. Weight tables are plain float arrays
+// (16^n entries per tuple) and are persisted through memory-mapped files so multi-hundred-MB networks load quickly.
+//
+// Weight updates are deliberately unsynchronized ("Hogwild" style): concurrent trainers may occasionally lose an
+// update, which TD learning tolerates, in exchange for lock-free scaling across cores.
+public class NTupleNetwork implements Strategy {
+
+    // Four 6-tuples (two straight, two 2x3 rectangles), cells numbered r * 4 + c
+    public static final int[][] DEFAULT_TUPLES = {
+            {0, 1, 2, 3, 4, 5},
+            {4, 5, 6, 7, 8, 9},
+            {0, 1, 2, 4, 5, 6},
+            {4, 5, 6, 8, 9, 10}
+    };
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int FILE_MAGIC = 0x4E545550; // "NTUP"
+    private static final int FILE_VERSION = 1;
+    private static final int SYMMETRIES = 8;
+    private static final int MAX_TUPLES = 64; // Keeps a loaded header within the first 4 KiB
+    private static final int MIN_TUPLE_LENGTH = 2;
+    private static final int MAX_TUPLE_LENGTH = 7;
+
+    private final int[][] tuples;
+    private final int tupleLength;
+    private final float[][] weights;
+    private final int[] cells; // Flattened [tuple][symmetry][cell] nibble indices
+
+    public NTupleNetwork(int[][] tuples) {
+        this.tuples = tuples;
+        this.tupleLength = tuples[0].length;
+        if (tupleLength < MIN_TUPLE_LENGTH || tupleLength > MAX_TUPLE_LENGTH) {
+            throw new IllegalArgumentException("Tuple length must be between " + MIN_TUPLE_LENGTH + " and "
+                    + MAX_TUPLE_LENGTH + ": " + tupleLength);
+        }
+        this.weights = new float[tuples.length][1 << (4 * tupleLength)];
+        this.cells = new int[tuples.length * SYMMETRIES * tupleLength];
+
+        int k = 0;
+        for (int[] tuple : tuples) {
+            if (tuple.length != tupleLength) throw new IllegalArgumentException("All tuples must have the same length");
+            for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+                for (int cell : tuple) cells[k++] = transformCell(cell, symmetry);
+            }
+        }
+    }
+
+    public NTupleNetwork() {
+        this(DEFAULT_TUPLES);
+    }
+
+    //Evaluation
+
+    // Estimated future score of a board (usually an afterstate: after the move, before the spawn)
+    public double evaluate(long board) {
+        double value = 0;
+        int k = 0;
+        for (float[] table : weights) {
+            for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+                value += table[index(board, k)];
+                k += tupleLength;
+            }
+        }
+        return value;
+    }
+
+    // Adds delta to every weight the board activates
+    public void update(long board, float delta) {
+        int k = 0;
+        for (float[] table : weights) {
+            for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+                table[index(board, k)] += delta;
+                k += tupleLength;
+            }
+        }
+    }
+
+    // Number of weights touched per evaluation, used to scale the learning rate
+    public int featureCount() {
+        return tuples.length * SYMMETRIES;
+    }
+
+    // Greedy one-ply play: immediate merge score plus the value of the resulting afterstate
+    @Override
+    public Direction chooseMove(long board, RandomGenerator random) {
+        Direction best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Direction direction : DIRECTIONS) {
+            long afterstate = BitBoard.move(board, direction);
+            if (afterstate == board) continue;
+            double value = BitBoard.scoreDelta(board, direction) + evaluate(afterstate);
+            if (value > bestValue) {
+                bestValue = value;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    private int index(long board, int offset) {
+        int index = 0;
+        for (int i = 0; i < tupleLength; i++) {
+            index = (index << 4) | (int) ((board >>> (cells[offset + i] * 4)) & 0xF);
+        }
+        return index;
+    }
+
+    // Maps a cell through one of the 8 rotations/reflections of the board
+    private static int transformCell(int cell, int symmetry) {
+        int r = cell / BitBoard.SIZE;
+        int c = cell % BitBoard.SIZE;
+        int last = BitBoard.SIZE - 1;
+        if ((symmetry & 1) != 0) c = last - c;             // Mirror columns
+        if ((symmetry & 2) != 0) r = last - r;             // Mirror rows
+        if ((symmetry & 4) != 0) { int t = r; r = c; c = t; } // Transpose
+        return r * BitBoard.SIZE + c;
+    }
+
+    //Persistence
+
+    // Header: magic, version, tuple count, tuple length, tuple cells; then each weight table, little-endian floats
+    public void save(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long headerBytes = headerBytes();
+        long tableBytes = (long) weights[0].length * Float.BYTES;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerBytes);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(tuples.length).putInt(tupleLength);
+            for (int[] tuple : tuples) {
+                for (int cell : tuple) header.putInt(cell);
+            }
+            for (int t = 0; t < weights.length; t++) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, headerBytes + t * tableBytes, tableBytes);
+                buffer.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().put(weights[t]);
+                buffer.force();
+            }
+            header.force();
+        }
+        GameController.replaceAtomically(temp, file);
+    }
+
+    // The header is checked against the file size before any weight table is allocated
+    public static NTupleNetwork load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4L * Integer.BYTES) throw new IOException("Not an n-tuple weights file: " + file);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, 4096));
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != FILE_MAGIC || header.getInt() != FILE_VERSION) {
+                throw new IOException("Not an n-tuple weights file: " + file);
+            }
+            int count = header.getInt();
+            int length = header.getInt();
+            if (count < 1 || count > MAX_TUPLES || length < MIN_TUPLE_LENGTH || length > MAX_TUPLE_LENGTH) {
+                throw new IOException("Invalid n-tuple shape " + count + " x " + length + ": " + file);
+            }
+            long headerBytes = 4L * Integer.BYTES + (long) count * length * Integer.BYTES;
+            long tableBytes = (1L << (4 * length)) * Float.BYTES;
+            if (size != headerBytes + tableBytes * count) {
+                throw new IOException("Truncated n-tuple weights file: " + file);
+            }
+            int[][] tuples = new int[count][length];
+            for (int[] tuple : tuples) {
+                for (int i = 0; i < length; i++) {
+                    tuple[i] = header.getInt();
+                    if (tuple[i] < 0 || tuple[i] >= BitBoard.SIZE * BitBoard.SIZE) {
+                        throw new IOException("Invalid n-tuple cell " + tuple[i] + ": " + file);
+                    }
+                }
+            }
+
+            NTupleNetwork network = new NTupleNetwork(tuples);
+            for (int t = 0; t < tuples.length; t++) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, headerBytes + t * tableBytes, tableBytes);
+                buffer.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(network.weights[t]);
+            }
+            return network;
+        }
+    }
+
+    private long headerBytes() {
+        return 4L * Integer.BYTES + (long) tuples.length * tupleLength * Integer.BYTES;
+    }
+
+    public long weightBytes() {
+        return (long) weights.length * weights[0].length * Float.BYTES;
+    }
+}
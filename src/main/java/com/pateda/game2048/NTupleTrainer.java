@@ -0,0 +1,167 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Trains an NTupleNetwork by TD(0) afterstate learning on headless self-play games.
+// All workers update the shared weight tables without locks; each has its own SplittableRandom.
+public class NTupleTrainer {
+
+    private static final long PROGRESS_INTERVAL_SECONDS = 10;
+    private static final int WINNING_EXPONENT = 11; // 2048
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final NTupleNetwork network;
+    private final float learningRate; // Per weight: alpha divided by the number of active features
+
+    private final AtomicLong gamesStarted = new AtomicLong();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder movesPlayed = new LongAdder();
+    private final LongAdder scoreSum = new LongAdder();
+    private final LongAdder reached2048 = new LongAdder();
+
+    public NTupleTrainer(NTupleNetwork network, double alpha) {
+        this.network = network;
+        this.learningRate = (float) (alpha / network.featureCount());
+    }
+
+    // Plays the given number of games across the given number of threads
+    public void train(long games, int threads, long seed) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom random = root.split();
+            workers.execute(() -> {
+                while (gamesStarted.getAndIncrement() < games) {
+                    playTrainingGame(random);
+                }
+            });
+        }
+        workers.shutdown();
+
+        long start = System.nanoTime();
+        long lastGames = 0;
+        long lastScore = 0;
+        long lastReached = 0;
+        while (!workers.awaitTermination(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS)) {
+            long finished = gamesFinished.sum();
+            long batch = finished - lastGames;
+            if (batch == 0) continue;
+            long score = scoreSum.sum();
+            long reached = reached2048.sum();
+            double hours = (System.nanoTime() - start) / 3.6e12;
+            System.out.printf("%d games (%.0f games/hour), recent mean score %.0f, recent 2048 rate %.1f%%%n",
+                    finished, finished / hours, (double) (score - lastScore) / batch, 100.0 * (reached - lastReached) / batch);
+            lastGames = finished;
+            lastScore = score;
+            lastReached = reached;
+        }
+        double hours = (System.nanoTime() - start) / 3.6e12;
+        System.out.printf("Trained %d games, %d moves in %.2f min (%.0f games/hour)%n",
+                gamesFinished.sum(), movesPlayed.sum(), hours * 60, gamesFinished.sum() / hours);
+    }
+
+    // One self-play game; each afterstate is moved toward reward + value of the next afterstate
+    private void playTrainingGame(SplittableRandom random) {
+        long board = BitBoard.spawnRandom(BitBoard.spawnRandom(0, random), random);
+        long previousAfterstate = 0;
+        boolean hasPrevious = false;
+        long score = 0;
+        long moves = 0;
+
+        while (true) {
+            Direction best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            long bestAfterstate = 0;
+            int bestReward = 0;
+            for (Direction direction : DIRECTIONS) {
+                long afterstate = BitBoard.move(board, direction);
+                if (afterstate == board) continue;
+                int reward = BitBoard.scoreDelta(board, direction);
+                double value = reward + network.evaluate(afterstate);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = direction;
+                    bestAfterstate = afterstate;
+                    bestReward = reward;
+                }
+            }
+
+            if (best == null) {
+                // Terminal: the last afterstate has no future reward
+                if (hasPrevious) network.update(previousAfterstate, (float) (learningRate * -network.evaluate(previousAfterstate)));
+                break;
+            }
+            if (hasPrevious) {
+                double error = bestValue - network.evaluate(previousAfterstate);
+                network.update(previousAfterstate, (float) (learningRate * error));
+            }
+
+            previousAfterstate = bestAfterstate;
+            hasPrevious = true;
+            score += bestReward;
+            moves++;
+            board = BitBoard.spawnRandom(bestAfterstate, random);
+        }
+
+        gamesFinished.increment();
+        movesPlayed.add(moves);
+        scoreSum.add(score);
+        if (BitBoard.maxExponent(board) >= WINNING_EXPONENT) reached2048.increment();
+    }
+
+    // Average nanoseconds per evaluate() over a fixed set of positions; prints it with the sum of the evaluations,
+    // which also keeps the timed loop from being optimized away
+    public static double measureEvaluationNanos(NTupleNetwork network, int samples) {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] boards = new long[1024];
+        for (int i = 0; i < boards.length; i++) boards[i] = random.nextLong();
+
+        double sink = 0;
+        for (int i = 0; i < samples; i++) sink += network.evaluate(boards[i & 1023]); // Warm-up
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) sink += network.evaluate(boards[i & 1023]);
+        long elapsed = System.nanoTime() - start;
+        double nanos = (double) elapsed / samples;
+        System.out.printf("Evaluation latency: %.1f ns (checksum %.4g)%n", nanos, sink);
+        return nanos;
+    }
+
+    // Usage: NTupleTrainer [games] [weights file] [threads] [alpha] [seed]
+    // Training resumes from the weights file if it exists and saves back to it afterwards.
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        Path weightsFile = Path.of(args.length > 1 ? args[1] : "ntuple.weights");
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        double alpha = args.length > 3 ? Double.parseDouble(args[3]) : 0.1;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        NTupleNetwork network;
+        if (Files.exists(weightsFile)) {
+            long start = System.nanoTime();
+            network = NTupleNetwork.load(weightsFile);
+            System.out.printf("Loaded %d MB of weights from %s in %.0f ms%n",
+                    network.weightBytes() >> 20, weightsFile, (System.nanoTime() - start) / 1e6);
+        } else {
+            network = new NTupleNetwork();
+            System.out.printf("Starting a new network (%d MB of weights)%n", network.weightBytes() >> 20);
+        }
+
+        System.out.printf("Training %d games on %d threads, alpha %.4f%n", games, threads, alpha);
+        new NTupleTrainer(network, alpha).train(games, threads, seed);
+
+        long start = System.nanoTime();
+        network.save(weightsFile);
+        System.out.printf("Saved weights to %s in %.0f ms%n", weightsFile, (System.nanoTime() - start) / 1e6);
+        measureEvaluationNanos(network, 1_000_000);
+    }
+}
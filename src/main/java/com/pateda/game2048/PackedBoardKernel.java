@@ -0,0 +1,96 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+// Kernel for boards that fit in one long (3x3 and 4x4).
+// 4x4 is BitBoard itself; 3x3 uses its own tables over 12-bit rows (4096 entries), looked up per row
+// and, for vertical moves, per column gathered into row order.
+public final class PackedBoardKernel extends BoardKernel {
+
+    private static final int ROW_BITS_3 = 12;
+    private static final int ROW_COUNT_3 = 1 << ROW_BITS_3;
+
+    // Sliding results for 3-cell lines; the score is the same for both directions
+    private static final short[] LEFT_3 = new short[ROW_COUNT_3];
+    private static final short[] RIGHT_3 = new short[ROW_COUNT_3];
+    private static final int[] SCORE_3 = new int[ROW_COUNT_3];
+
+    static {
+        for (int row = 0; row < ROW_COUNT_3; row++) {
+            int[] line = new int[3];
+            int score = 0;
+            int target = 0;
+            int pending = 0;
+            for (int c = 0; c < 3; c++) {
+                int value = (row >>> (c * 4)) & 0xF;
+                if (value == 0) continue;
+                if (pending == value && value < BitBoard.MAX_EXPONENT) {
+                    line[target++] = value + 1;
+                    score += 1 << (value + 1);
+                    pending = 0;
+                } else {
+                    if (pending != 0) line[target++] = pending;
+                    pending = value;
+                }
+            }
+            if (pending != 0) line[target] = pending;
+
+            int result = line[0] | (line[1] << 4) | (line[2] << 8);
+            LEFT_3[row] = (short) result;
+            RIGHT_3[reverse3(row)] = (short) reverse3(result);
+            SCORE_3[row] = score;
+        }
+    }
+
+    PackedBoardKernel(int size) {
+        super(size);
+        if (size != 3 && size != BitBoard.SIZE) throw new IllegalArgumentException("Unsupported packed size " + size);
+    }
+
+    @Override
+    public int move(long[] board, Direction direction, long[] out) {
+        long before = board[0];
+        long after;
+        int score;
+        if (size == BitBoard.SIZE) {
+            after = BitBoard.move(before, direction);
+            score = after == before ? 0 : BitBoard.scoreDelta(before, direction);
+        } else {
+            after = 0;
+            score = 0;
+            boolean vertical = direction == Direction.UP || direction == Direction.DOWN;
+            short[] table = direction == Direction.LEFT || direction == Direction.UP ? LEFT_3 : RIGHT_3;
+            for (int i = 0; i < 3; i++) {
+                int line = vertical ? column3(before, i) : (int) (before >>> (i * ROW_BITS_3)) & 0xFFF;
+                int moved = table[line];
+                score += SCORE_3[line];
+                after |= vertical ? spreadColumn3(moved) << (i * 4) : (long) moved << (i * ROW_BITS_3);
+            }
+        }
+        if (after == before) return -1;
+        out[0] = after;
+        return score;
+    }
+
+    @Override
+    public boolean isGameOver(long[] board) {
+        if (size == BitBoard.SIZE) return BitBoard.isGameOver(board[0]);
+        return super.isGameOver(board);
+    }
+
+    // Nibbles of column c (top first) as a 12-bit row
+    private static int column3(long board, int c) {
+        return (int) ((board >>> (c * 4)) & 0xF)
+                | (int) ((board >>> (c * 4 + 8)) & 0xF0)
+                | (int) ((board >>> (c * 4 + 16)) & 0xF00);
+    }
+
+    // Inverse of column3 for column 0
+    private static long spreadColumn3(int line) {
+        return (line & 0xFL) | ((line & 0xF0L) << 8) | ((line & 0xF00L) << 16);
+    }
+
+    private static int reverse3(int row) {
+        return ((row & 0xF) << 8) | (row & 0xF0) | ((row >>> 8) & 0xF);
+    }
+}
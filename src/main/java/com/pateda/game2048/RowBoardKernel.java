@@ -0,0 +1,88 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+// Kernel for 5x5 to 8x8 boards, where per-row lookup tables would be too large (up to 2^32 entries).
+// The board is unpacked once into a byte per cell, each line is slid with a short branch-light loop
+// over a scratch buffer, and the result is packed back; nothing is allocated per move.
+public final class RowBoardKernel extends BoardKernel {
+
+    private final byte[] cellBuffer;
+    private final byte[] line;
+
+    RowBoardKernel(int size) {
+        super(size);
+        this.cellBuffer = new byte[cells];
+        this.line = new byte[size];
+    }
+
+    @Override
+    public int move(long[] board, Direction direction, long[] out) {
+        unpack(board);
+
+        // Every direction is "slide towards the first cell of each line"; only the walk differs
+        int first;
+        int step;
+        int lineStep;
+        switch (direction) {
+            case LEFT -> { first = 0; step = 1; lineStep = size; }
+            case RIGHT -> { first = size - 1; step = -1; lineStep = size; }
+            case UP -> { first = 0; step = size; lineStep = 1; }
+            default -> { first = cells - size; step = -size; lineStep = 1; }
+        }
+
+        int score = 0;
+        for (int i = 0, start = first; i < size; i++, start += lineStep) {
+            score += slideLine(start, step);
+        }
+
+        boolean changed = false;
+        for (int w = 0; w < words; w++) {
+            long packed = pack(w);
+            changed |= packed != board[w];
+            out[w] = packed;
+        }
+        return changed ? score : -1;
+    }
+
+    // Slides one line of cellBuffer in place and returns the points scored
+    private int slideLine(int start, int step) {
+        int count = 0;
+        for (int k = 0, cell = start; k < size; k++, cell += step) {
+            byte value = cellBuffer[cell];
+            if (value != 0) line[count++] = value;
+        }
+
+        int score = 0;
+        int target = 0;
+        for (int k = 0; k < count; k++) {
+            int value = line[k];
+            if (k + 1 < count && line[k + 1] == value && value < BitBoard.MAX_EXPONENT) {
+                value++;
+                score += 1 << value;
+                k++;
+            }
+            line[target++] = (byte) value;
+        }
+
+        for (int k = 0, cell = start; k < size; k++, cell += step) {
+            cellBuffer[cell] = k < target ? line[k] : 0;
+        }
+        return score;
+    }
+
+    private void unpack(long[] board) {
+        for (int i = 0; i < cells; i++) {
+            cellBuffer[i] = (byte) ((board[i >>> 4] >>> ((i & 15) * 4)) & 0xF);
+        }
+    }
+
+    private long pack(int word) {
+        long packed = 0;
+        int end = Math.min(cells, (word + 1) * 16);
+        for (int i = end - 1; i >= word * 16; i--) {
+            packed = (packed << 4) | cellBuffer[i];
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,152 @@
+package com.pateda.game2048;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// In-memory view of the save file for the menus. The file is read once per version: saves made by this process
+// are handed over directly, and other changes are detected by mtime/size.
+// "Is a game in progress?" is answered from the save header and the legacy top scores are only read when the
+// Leaderboard imports them, so neither decodes the game; loadGame() decodes a fresh, independent GameController
+// from the cached bytes without touching the disk.
+public class SaveRepository {
+
+    private static final SaveRepository DEFAULT = new SaveRepository(GameController.getSaveFile());
+
+    private final String filePath;
+
+    // Cached save (guarded by this); data == null means there is no save
+    private byte[] data;
+    private Path source;
+    private FileTime modified;
+    private long size = -1;
+    private boolean parsed;
+    private boolean gameInProgress;
+    private List<HighScore> topScores; // Read on first use
+
+    public SaveRepository(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public static SaveRepository getDefault() {
+        return DEFAULT;
+    }
+
+    //Queries
+
+    // True if the save holds a game that is not over
+    public synchronized boolean hasGameInProgress() {
+        refresh();
+        parse();
+        return gameInProgress;
+    }
+
+    // High score table of the save, best first; empty if there is no save
+    public synchronized List<HighScore> getTopScores() {
+        refresh();
+        if (topScores == null) {
+            topScores = List.of();
+            if (data != null) {
+                try {
+                    topScores = Collections.unmodifiableList(new ArrayList<>(GameController.readSavedHighScores(data)));
+                } catch (IOException e) {
+                    System.err.println("Error reading saved high scores: " + e.getMessage());
+                }
+            }
+        }
+        return topScores;
+    }
+
+    // Fresh copy of the saved game, or a new game if there is none
+    public synchronized GameController loadGame() {
+        refresh();
+        if (data != null) {
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
+            GameEvents.Load event = new GameEvents.Load();
+            event.begin();
+            try {
+                GameController game = GameController.decodeSave(data);
+                if (Metrics.ENABLED) Metrics.LOAD_GAME.recordSince(start);
+                if (event.shouldCommit()) {
+                    event.path = filePath;
+                    event.bytes = data.length;
+                    event.cached = true;
+                    event.commit();
+                }
+                return game;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return new GameController();
+    }
+
+    //Cache Maintenance
+
+    // Called after this process wrote the save, so the next query does not re-read it
+    synchronized void onWritten(byte[] written) {
+        if (written != data) cache(written);
+        source = Path.of(filePath);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            modified = attributes.lastModifiedTime();
+            size = attributes.size();
+        } catch (IOException e) {
+            modified = null; // Forces a re-read on the next query
+        }
+    }
+
+    private void refresh() {
+        // A save still queued for writing is newer than anything on disk
+        byte[] pending = SaveService.getDefault().pendingSnapshot(filePath);
+        if (pending != null) {
+            if (pending != data) {
+                cache(pending);
+                modified = null;
+            }
+            return;
+        }
+
+        Path path = GameController.resolveSaveFile(filePath);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (data != null && path.equals(source) && attributes.lastModifiedTime().equals(modified)
+                    && attributes.size() == size) {
+                return; // Unchanged since the last read
+            }
+            cache(Files.readAllBytes(path));
+            source = path;
+            modified = attributes.lastModifiedTime();
+            size = attributes.size();
+        } catch (NoSuchFileException e) {
+            cache(null);
+        } catch (IOException e) {
+            System.err.println("Error reading save: " + e.getMessage());
+            cache(null);
+        }
+    }
+
+    private void cache(byte[] newData) {
+        data = newData;
+        parsed = false;
+        gameInProgress = false;
+        topScores = null;
+    }
+
+    // Reads the game-over flag once per cached version
+    private void parse() {
+        if (parsed || data == null) return;
+        parsed = true;
+        try {
+            gameInProgress = !GameController.isSavedGameOver(data);
+        } catch (IOException e) {
+            System.err.println("Error parsing save: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.pateda.game2048;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Writes saves on a background thread so slow disks never block the JavaFX thread.
+// Callers hand over an already-encoded snapshot; while a file is waiting or being written, newer snapshots
+// for it replace the pending one, so a burst of saves turns into at most one extra write of the latest state.
+public class SaveService {
+
+    private static final SaveService DEFAULT = new SaveService();
+
+    // Latest snapshot per file that is not on disk yet; an entry stays until the exact snapshot is written
+    private final Map<String, byte[]> pending = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "save-writer");
+        thread.setDaemon(true); // Game2048.stop() flushes; never keep the JVM alive for a save
+        return thread;
+    });
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalWriteNanos = new LongAdder();
+    private final AtomicLong maxWriteNanos = new AtomicLong();
+    private volatile long lastWriteNanos;
+    private final boolean logWrites;
+
+    public SaveService() {
+        this(true);
+    }
+
+    // logWrites = false for stores that write many files, such as the server's session snapshots
+    public SaveService(boolean logWrites) {
+        this.logWrites = logWrites;
+    }
+
+    public static SaveService getDefault() {
+        return DEFAULT;
+    }
+
+    // Queues a snapshot for writing; returns immediately
+    public void submit(String filePath, byte[] data) {
+        requests.increment();
+        if (pending.put(filePath, data) == null) {
+            writer.execute(() -> drain(filePath));
+        } else {
+            coalesced.increment(); // The scheduled write will pick up this snapshot instead
+        }
+    }
+
+    // Snapshot that will be (or is being) written to the file, so readers never see an older save
+    public byte[] pendingSnapshot(String filePath) {
+        return pending.get(filePath);
+    }
+
+    private void drain(String filePath) {
+        byte[] data;
+        while ((data = pending.get(filePath)) != null) {
+            long start = System.nanoTime();
+            GameEvents.Save event = new GameEvents.Save();
+            event.begin();
+            try {
+                GameController.writeSaveFile(filePath, data);
+                recordWrite(System.nanoTime() - start);
+                if (event.shouldCommit()) {
+                    event.path = filePath;
+                    event.bytes = data.length;
+                    event.background = true;
+                    event.commit();
+                }
+                if (logWrites) System.out.printf("Game saved to %s (%d bytes, %.2f ms)%n", filePath, data.length, lastWriteNanos / 1e6);
+            } catch (IOException | RuntimeException e) {
+                // Anything else would leave the entry pending forever: later submits would only coalesce into it
+                failures.increment();
+                System.err.println("Error saving game: " + e);
+            }
+            // Done unless a newer snapshot arrived during the write
+            if (pending.remove(filePath, data)) break;
+        }
+    }
+
+    private void recordWrite(long nanos) {
+        writes.increment();
+        totalWriteNanos.add(nanos);
+        maxWriteNanos.accumulateAndGet(nanos, Math::max);
+        lastWriteNanos = nanos;
+        if (Metrics.ENABLED) Metrics.SAVE_GAME.record(nanos);
+    }
+
+    // Blocks until everything submitted before this call is on disk
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Flushes pending saves and stops the writer thread; later submits are rejected
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("Timed out waiting for " + pending.size() + " pending save(s)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Metrics
+
+    // Files with a snapshot waiting or being written
+    public int getQueueDepth() { return pending.size(); }
+    public long getRequestCount() { return requests.sum(); }
+    public long getCoalescedCount() { return coalesced.sum(); }
+    public long getWriteCount() { return writes.sum(); }
+    public long getFailureCount() { return failures.sum(); }
+    public long getLastWriteNanos() { return lastWriteNanos; }
+    public long getMaxWriteNanos() { return maxWriteNanos.get(); }
+
+    public double getAverageWriteMillis() {
+        long count = writes.sum();
+        return count == 0 ? 0 : totalWriteNanos.sum() / 1e6 / count;
+    }
+
+    public String summary() {
+        return String.format("%d save requests, %d coalesced, %d writes (avg %.2f ms, max %.2f ms), %d failed, %d pending",
+                getRequestCount(), getCoalescedCount(), getWriteCount(), getAverageWriteMillis(),
+                getMaxWriteNanos() / 1e6, getFailureCount(), getQueueDepth());
+    }
+}
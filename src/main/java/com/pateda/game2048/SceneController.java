@@ -1,34 +1,49 @@
 package com.pateda.game2048;
 
-import javafx.animation.ScaleTransition;
+import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.scene.Cursor;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
 import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.RowConstraints;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import com.pateda.game2048.GameController.Direction;
 
-import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Random;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 public class SceneController implements Initializable {
 
     //Global Reference
     private static GameController activeGameInstance = null;
+    private static ExpectimaxSearch aiSearch = null; // Shared across scenes, created on first hint
+    private static MonteCarloPlayer monteCarloPlayer = null;
+    private static GameEngine activeEngine = null; // Owns activeGameInstance while fast autoplay runs
+    // Board size for new games; B on the main menu cycles it, -Dgame2048.boardSize sets the default
+    private static int newGameSize = Math.max(BoardKernel.MIN_SIZE,
+            Math.min(BoardKernel.MAX_SIZE, Integer.getInteger("game2048.boardSize", BitBoard.SIZE)));
 
     //Menu UI Elements
     @FXML private Button quitIcon;
@@ -45,10 +60,7 @@ public class SceneController implements Initializable {
     @FXML private GridPane gameGrid;
     @FXML private Label scoreLabel;
     @FXML private Button undoButton;
-    @FXML private Label tile00, tile10, tile20, tile30;
-    @FXML private Label tile01, tile11, tile21, tile31;
-    @FXML private Label tile02, tile12, tile22, tile32;
-    @FXML private Label tile03, tile13, tile23, tile33;
+    @FXML private Label hintLabel;
 
     //Overlays
     @FXML private VBox winMessageOverlay;
@@ -58,29 +70,69 @@ public class SceneController implements Initializable {
     @FXML private Button replayButton;
     @FXML private TextField nameInput;
 
+    //Replay UI Elements
+    @FXML private GridPane replayGrid;
+    @FXML private Slider replaySlider;
+    @FXML private Label replayMoveLabel;
+    @FXML private Button replayPlayButton;
+
     //Internal State
     private GameController gameLogic;
-    private Label[][] tileLabels;
+    private Label[] tileLabels; // Indexed by cell, r * size + c
     private Stage stage;
-    private int[][] oldBoardState; // For animation comparison
-    private static final int BOARD_SIZE = 4;
+    private SceneManager sceneManager;
+    private byte[] renderedTiles; // Exponent each tile label currently shows; diffed against the board to find dirty tiles
+    private long renderedScore = -1;
+    private TileAnimator tileAnimator;
+    private static final int MOVE_QUEUE_CAPACITY = 8;
+    private final ArrayDeque<Direction> queuedMoves = new ArrayDeque<>(MOVE_QUEUE_CAPACITY); // Typed during animations
+    private static final int AI_MAX_DEPTH = 8;
+    private static final long AI_MOVE_BUDGET_MS = 100; // Per-move search latency budget
+    private static final int AI_TABLE_CAPACITY = 1 << 20; // 16 MB transposition table
+    private static final int AI_MAX_ROLLOUTS = 2000; // Per move, Monte Carlo autoplay
+    private static final int AI_ROLLOUTS_PER_ROUND = 100;
+    // Fast autoplay (F) strategy, run on the GameEngine thread; -Dgame2048.fastStrategy picks another Strategy
+    private static final String FAST_STRATEGY_NAME = System.getProperty("game2048.fastStrategy", "expectimax");
+    private GameEngine engine;
+    private AnimationTimer engineRenderer;
+    private long renderedSequence;
+    private long renderedFrames;
+    private enum AutoplayMode { OFF, EXPECTIMAX, MONTE_CARLO }
+    private AutoplayMode autoplayMode = AutoplayMode.OFF;
+    private final Random aiRandom = new Random();
+    private boolean aiSearchPending = false;
+    // Tile texts and style classes per exponent, so rendering never formats or concatenates strings
+    private static final String[] TILE_TEXT = new String[BitBoard.MAX_EXPONENT + 1];
+    private static final String[] TILE_STYLE = new String[BitBoard.MAX_EXPONENT + 1];
+    static {
+        TILE_TEXT[0] = "";
+        TILE_STYLE[0] = "tile-empty";
+        for (int exponent = 1; exponent <= BitBoard.MAX_EXPONENT; exponent++) {
+            int value = 1 << exponent;
+            TILE_TEXT[exponent] = String.valueOf(value);
+            TILE_STYLE[exponent] = value >= 4096 ? "tile-max" : "tile-" + value;
+        }
+    }
+    private static final int REPLAY_STEP_MS = 150; // Playback speed of the replay viewer
+    private GameReplay replay;
+    private Timeline replayTimeline;
+    private int replayIndex;
 
     //Setters/Getters
     public void setStage(Stage stage) { this.stage = stage; }
+    public void setSceneManager(SceneManager sceneManager) { this.sceneManager = sceneManager; }
     public static GameController getActiveGameInstance() { return activeGameInstance; }
 
 
      //Initializes the controller class.
      //Detects which scene is loaded based on injected elements and configures it.
+     //Runs once per view (possibly on the preloader thread); per-visit setup happens in the load*Scene methods.
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         // 1. Game Scene Initialization
         if (gameGrid != null) {
-            tileLabels = new Label[][]{
-                    {tile00, tile10, tile20, tile30}, {tile01, tile11, tile21, tile31},
-                    {tile02, tile12, tile22, tile32}, {tile03, tile13, tile23, tile33}
-            };
+            // Tiles are built in loadGameScene once the board size is known
             gameGrid.setFocusTraversable(true);
             gameGrid.setOnKeyPressed(this::handleGameKeyPress);
             updateUndoButtonState();
@@ -93,22 +145,17 @@ public class SceneController implements Initializable {
         else if (playButton != null) {
             // Prevent buttons from stealing keyboard focus
             disableMenuFocus();
-
-            // Attach keyboard listener once scene is ready
-            Platform.runLater(() -> {
-                if (playButton.getScene() != null) {
-                    playButton.getScene().setOnKeyPressed(this::handleMenuKeyPress);
-                    playButton.getParent().requestFocus();
-                }
-            });
         }
-        // 3. High Scores / Info Initialization
-        else if (highScoreList != null) {
-            Platform.runLater(() -> {
-                if (highScoreList.getScene() != null) {
-                    highScoreList.getScene().setOnKeyPressed(this::handleBackKeyOnly);
-                }
-            });
+        // 3. Replay Viewer Initialization
+        else if (replayGrid != null) {
+            buildTiles(replayGrid, BitBoard.SIZE); // Recorded games are 4x4
+            // Keep arrow keys for stepping instead of moving focus around
+            replaySlider.setFocusTraversable(false);
+            replayPlayButton.setFocusTraversable(false);
+            replaySlider.valueProperty().addListener((obs, oldValue, newValue) ->
+                    showReplayMove((int) Math.round(newValue.doubleValue())));
+            replayTimeline = new Timeline(new KeyFrame(Duration.millis(REPLAY_STEP_MS), e -> stepReplay(1)));
+            replayTimeline.setCycleCount(Animation.INDEFINITE);
         }
     }
 
@@ -132,6 +179,11 @@ public class SceneController implements Initializable {
             event.consume();
             return;
         }
+        if (engine != null) {
+            handleEngineKeyPress(event); // The game belongs to the engine thread until it is stopped
+            event.consume();
+            return;
+        }
 
         // Block input if overlay is active
         if (isOverlayVisible()) {
@@ -140,6 +192,11 @@ public class SceneController implements Initializable {
         }
 
         // event.isShortcutDown() checks for Ctrl on Windows/Linux and Command on Mac
+        if ((event.getCode() == KeyCode.Y || (event.getCode() == KeyCode.Z && event.isShiftDown())) && event.isShortcutDown()) {
+            onRedo();
+            event.consume();
+            return;
+        }
         if (event.getCode() == KeyCode.Z && event.isShortcutDown()) {
             onUndoButtonClick(null);
             event.consume();
@@ -150,12 +207,7 @@ public class SceneController implements Initializable {
 
         // Game Over / High Score Check logic
         if (gameLogic.isGameOver()) {
-            if (gameLogic.isHighScore(gameLogic.getScore())) {
-                showHighScoreInput();
-            } else {
-                if (gameOverOverlay != null) gameOverOverlay.setVisible(true);
-                gameLogic.saveGame(GameController.getSaveFile());
-            }
+            handleGameOver();
             return;
         }
 
@@ -165,16 +217,49 @@ public class SceneController implements Initializable {
             case DOWN, S -> direction = Direction.DOWN;
             case LEFT, A -> direction = Direction.LEFT;
             case RIGHT, D -> direction = Direction.RIGHT;
+            case H -> { if (checkAiAvailable()) requestAiMove(false); }
+            case P -> { if (checkAiAvailable()) toggleAutoplay(AutoplayMode.EXPECTIMAX); }
+            case M -> { if (checkAiAvailable()) toggleAutoplay(AutoplayMode.MONTE_CARLO); }
+            case F -> { if (checkAiAvailable()) startFastAutoplay(); }
         }
 
-        if (direction != null) {
-            if (gameLogic.handleMove(direction)) {
-                updateBoardUI();
-            }
-        }
+        if (direction != null) submitMove(direction);
         event.consume();
     }
 
+    // Moves typed while tiles are still animating wait in a bounded queue and are applied in order once the
+    // animation ends; a full queue is played out at once so fast players never lose moves
+    private void submitMove(Direction direction) {
+        if (!tileAnimator.isAnimating() && queuedMoves.isEmpty()) {
+            if (gameLogic.handleMove(direction)) updateBoardUI();
+            return;
+        }
+        if (queuedMoves.size() == MOVE_QUEUE_CAPACITY) applyQueuedMoves();
+        queuedMoves.addLast(direction);
+    }
+
+    // Applies every queued move in order and renders the result once, so a backlog costs a single animation
+    private void applyQueuedMoves() {
+        boolean moved = false;
+        while (!queuedMoves.isEmpty()) {
+            moved |= gameLogic.handleMove(queuedMoves.pollFirst()); // Refused once the game is over or won
+        }
+        if (moved) updateBoardUI();
+    }
+
+    private void onAnimationsFinished() {
+        if (gameLogic != null) applyQueuedMoves();
+    }
+
+    private void handleGameOver() {
+        if (gameLogic.isHighScore(gameLogic.getScore())) {
+            showHighScoreInput();
+        } else {
+            if (gameOverOverlay != null) gameOverOverlay.setVisible(true);
+            gameLogic.saveGameAsync(GameController.getSaveFile());
+        }
+    }
+
     // Handles Main Menu inputs (Shortcuts)
     private void handleMenuKeyPress(KeyEvent event) {
         // Handle Confirmation Overlay Inputs
@@ -194,10 +279,34 @@ public class SceneController implements Initializable {
             case I -> onInfoClick(null);
             case N -> onNewGameButtonClick(null);
             case T -> onThemeToggle(null);
+            case B -> cycleNewGameSize();
             case ENTER, SPACE -> onPlayButtonClick(null);
         }
     }
 
+    // Steps the size of the next new game through MIN_SIZE..MAX_SIZE, shown in the window title
+    private void cycleNewGameSize() {
+        newGameSize = newGameSize >= BoardKernel.MAX_SIZE ? BoardKernel.MIN_SIZE : newGameSize + 1;
+        stage.setTitle(menuTitle());
+    }
+
+    static String menuTitle() {
+        return newGameSize == BitBoard.SIZE ? "2048" : "2048 (new games: " + newGameSize + "x" + newGameSize + ")";
+    }
+
+    // Handles the replay viewer: Left/Right step, Home/End jump, Space plays or pauses
+    private void handleReplayKeyPress(KeyEvent event) {
+        switch (event.getCode()) {
+            case ESCAPE -> onReplayBackClick(null);
+            case LEFT, A -> stepReplay(-1);
+            case RIGHT, D -> stepReplay(1);
+            case HOME -> replaySlider.setValue(0);
+            case END -> replaySlider.setValue(replay.getMoveCount());
+            case SPACE -> onReplayPlayToggle(null);
+        }
+        event.consume();
+    }
+
     // Handles Back/Escape for Info and Scores
     private void handleBackKeyOnly(KeyEvent event) {
         if (event.getCode() == KeyCode.ESCAPE) {
@@ -207,66 +316,84 @@ public class SceneController implements Initializable {
 
     //UI Update Logic
 
-    // Syncs UI Grid with Internal Board State
+    // Syncs UI Grid with Internal Board State, animating spawns and merges
     public void updateBoardUI() {
-        int[][] currentBoard = gameLogic.getBoard();
-
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                int value = currentBoard[r][c];
-                int oldValue = oldBoardState[r][c];
-                Label currentLabel = tileLabels[r][c];
-
-                currentLabel.getStyleClass().clear();
-                currentLabel.getStyleClass().add("tile");
-
-                // Determine if animation is needed
-                boolean spawn = (value > 0 && oldValue == 0);
-                boolean merge = (value > 0 && oldValue > 0 && value != oldValue);
-
-                // Update text and style class based on value
-                if (value > 0) {
-                    currentLabel.setText(String.valueOf(value));
-                    currentLabel.getStyleClass().add(value >= 4096 ? "tile-max" : "tile-" + value);
-                } else {
-                    currentLabel.setText("");
-                    currentLabel.getStyleClass().add("tile-empty");
-                }
-
-                // Apply animations
-                if (spawn) {
-                    animateTile(currentLabel, 0.7, 150);
-                } else if (merge) {
-                    animatePulse(currentLabel);
-                } else {
-                    currentLabel.setScaleX(1.0);
-                    currentLabel.setScaleY(1.0);
-                }
-            }
-        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        renderBoard(true);
+        if (Metrics.ENABLED) Metrics.UPDATE_BOARD_UI.recordSince(start);
+    }
 
-        this.oldBoardState = deepCopy(currentBoard);
-        scoreLabel.setText("SCORE: " + gameLogic.getScore());
+    // Touches only the tiles whose value changed since the last render, then the HUD
+    private void renderBoard(boolean animate) {
+        renderTiles(gameLogic.getState(), animate);
+        updateHud(gameLogic.getScore());
         updateUndoButtonState();
         checkGameStatusOverlays();
     }
 
-    private void animateTile(Label label, double startScale, int duration) {
-        label.setScaleX(startScale);
-        label.setScaleY(startScale);
-        ScaleTransition st = new ScaleTransition(Duration.millis(duration), label);
-        st.setToX(1.0);
-        st.setToY(1.0);
-        st.play();
+    // Diffs the state's board against the rendered tiles
+    private void renderTiles(GameState state, boolean animate) {
+        for (int cell = 0; cell < tileLabels.length; cell++) {
+            int exponent = state.exponentAt(cell);
+            int oldExponent = renderedTiles[cell];
+            if (exponent == oldExponent) continue;
+            renderedTiles[cell] = (byte) exponent;
+
+            Label label = tileLabels[cell];
+            styleTile(label, exponent);
+
+            // Apply animations
+            if (animate && exponent > 0 && oldExponent == 0) {
+                tileAnimator.spawn(cell);
+            } else if (animate && exponent > 0) {
+                tileAnimator.pulse(cell); // Merge, or a different tile slid in
+            } else {
+                tileAnimator.reset(cell);
+            }
+        }
+    }
+
+    private void updateHud(long score) {
+        if (score == renderedScore) return;
+        renderedScore = score;
+        scoreLabel.setText("SCORE: " + score);
+    }
+
+    // Fills the grid with size x size empty tile labels; the size-N class scales tiles and text to fit
+    private void buildTiles(GridPane grid, int size) {
+        grid.getChildren().clear();
+        grid.getColumnConstraints().clear();
+        grid.getRowConstraints().clear();
+        grid.getStyleClass().removeIf(styleClass -> styleClass.startsWith("size-"));
+        grid.getStyleClass().add("size-" + size);
+
+        tileLabels = new Label[size * size];
+        renderedTiles = new byte[size * size];
+        for (int i = 0; i < size; i++) {
+            ColumnConstraints column = new ColumnConstraints();
+            column.setHgrow(Priority.SOMETIMES);
+            grid.getColumnConstraints().add(column);
+            RowConstraints row = new RowConstraints();
+            row.setVgrow(Priority.SOMETIMES);
+            grid.getRowConstraints().add(row);
+        }
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                Label label = new Label(TILE_TEXT[0]);
+                label.setAlignment(javafx.geometry.Pos.CENTER);
+                label.getStyleClass().addAll("tile", TILE_STYLE[0]);
+                grid.add(label, c, r);
+                tileLabels[r * size + c] = label;
+            }
+        }
+        if (tileAnimator != null) tileAnimator.stop();
+        tileAnimator = new TileAnimator(tileLabels, this::onAnimationsFinished);
     }
 
-    private void animatePulse(Label label) {
-        ScaleTransition st = new ScaleTransition(Duration.millis(100), label);
-        st.setFromX(1.1);
-        st.setFromY(1.1);
-        st.setToX(1.0);
-        st.setToY(1.0);
-        st.play();
+    // Swaps the value class in place (slot 1, after "tile"): one style change per dirty tile
+    private void styleTile(Label label, int exponent) {
+        label.setText(TILE_TEXT[exponent]);
+        label.getStyleClass().set(1, TILE_STYLE[exponent]);
     }
 
     private void updateUndoButtonState() {
@@ -307,6 +434,195 @@ public class SceneController implements Initializable {
         }
     }
 
+    //AI Hint & Autoplay
+
+    // The searches run on packed 4x4 boards only
+    private boolean checkAiAvailable() {
+        if (gameLogic.getBoardSize() == BitBoard.SIZE) return true;
+        if (hintLabel != null) hintLabel.setText("AI hints are only available on 4x4 boards");
+        return false;
+    }
+
+    private static ExpectimaxSearch getAiSearch() {
+        if (aiSearch == null) {
+            aiSearch = new ExpectimaxSearch(AI_MAX_DEPTH, AI_MOVE_BUDGET_MS, TimeUnit.MILLISECONDS,
+                    new ForkJoinPool(), new TranspositionTable(AI_TABLE_CAPACITY));
+        }
+        return aiSearch;
+    }
+
+    private static MonteCarloPlayer getMonteCarloPlayer() {
+        if (monteCarloPlayer == null) {
+            monteCarloPlayer = new MonteCarloPlayer(AI_MAX_ROLLOUTS, AI_ROLLOUTS_PER_ROUND, AI_MOVE_BUDGET_MS,
+                    TimeUnit.MILLISECONDS, Strategy.random(), new ForkJoinPool());
+        }
+        return monteCarloPlayer;
+    }
+
+    // Pressing the key of the running mode stops autoplay; the other key switches engines
+    private void toggleAutoplay(AutoplayMode mode) {
+        autoplayMode = (autoplayMode == mode) ? AutoplayMode.OFF : mode;
+        if (autoplayMode != AutoplayMode.OFF) {
+            requestAiMove(true);
+        } else if (hintLabel != null) {
+            hintLabel.setText("");
+        }
+    }
+
+    // Searches off the FX thread; the result is shown (hint) or played (autoplay) back on the FX thread
+    private void requestAiMove(boolean playMove) {
+        if (aiSearchPending || gameLogic == null) return;
+        aiSearchPending = true;
+        long searchedBoard = gameLogic.getPackedBoard();
+
+        CompletableFuture<? extends MoveAdvice> search = (playMove && autoplayMode == AutoplayMode.MONTE_CARLO)
+                ? getMonteCarloPlayer().searchAsync(searchedBoard, aiRandom.nextLong())
+                : getAiSearch().searchAsync(searchedBoard);
+
+        search.whenComplete((result, error) -> Platform.runLater(() -> {
+            aiSearchPending = false;
+            if (error != null) {
+                error.printStackTrace();
+                autoplayMode = AutoplayMode.OFF;
+                return;
+            }
+            onAiResult(searchedBoard, result, playMove);
+        }));
+    }
+
+    private void onAiResult(long searchedBoard, MoveAdvice result, boolean playMove) {
+        if (hintLabel != null && result.move() != null) {
+            String source = autoplayMode == AutoplayMode.OFF ? "hint" : "autoplay";
+            hintLabel.setText(String.format("%s: %s  (%s)", source, result.move().name().toLowerCase(), result.summary()));
+        }
+        if (!playMove || autoplayMode == AutoplayMode.OFF) return;
+        if (result.move() == null || isOverlayVisible()) {
+            autoplayMode = AutoplayMode.OFF;
+            return;
+        }
+
+        // Skip the result if the player moved while the search was running
+        if (gameLogic.getPackedBoard() == searchedBoard && gameLogic.handleMove(result.move())) {
+            updateBoardUI();
+        }
+        if (gameLogic.isGameOver()) {
+            autoplayMode = AutoplayMode.OFF;
+            handleGameOver();
+            return;
+        }
+        requestAiMove(true);
+    }
+
+    //Fast Autoplay (engine thread)
+
+    // Plays the fast strategy on the GameEngine thread as quickly as it can move. Each frame draws only the latest
+    // snapshot, skipping the boards in between, so move throughput no longer depends on the frame rate.
+    private void startFastAutoplay() {
+        autoplayMode = AutoplayMode.OFF;
+        applyQueuedMoves();
+        tileAnimator.finish();
+
+        engine = new GameEngine(gameLogic);
+        activeEngine = engine;
+        renderedSequence = -1;
+        renderedFrames = 0;
+        if (engineRenderer == null) {
+            engineRenderer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    renderEngineSnapshot();
+                }
+            };
+        }
+        engineRenderer.start();
+        engine.setAutoplay(Strategy.byName(FAST_STRATEGY_NAME));
+        hintLabel.setText("fast autoplay: " + FAST_STRATEGY_NAME + " (F to stop)");
+    }
+
+    // Moves typed during fast autoplay are queued to the engine between its own moves
+    private void handleEngineKeyPress(KeyEvent event) {
+        if (event.isShortcutDown() && (event.getCode() == KeyCode.Y || (event.getCode() == KeyCode.Z && event.isShiftDown()))) {
+            engine.submit(GameController::redo);
+            return;
+        }
+        if (event.isShortcutDown() && event.getCode() == KeyCode.Z) {
+            engine.submit(GameController::undo);
+            return;
+        }
+        switch (event.getCode()) {
+            case UP, W -> engine.submit(Direction.UP);
+            case DOWN, S -> engine.submit(Direction.DOWN);
+            case LEFT, A -> engine.submit(Direction.LEFT);
+            case RIGHT, D -> engine.submit(Direction.RIGHT);
+            case F -> stopEngine();
+        }
+    }
+
+    private void renderEngineSnapshot() {
+        GameEngine.Snapshot snapshot = engine.latest();
+        if (snapshot.sequence() != renderedSequence) {
+            renderedSequence = snapshot.sequence();
+            renderedFrames++;
+            renderTiles(snapshot.state(), false);
+            updateHud(snapshot.state().getScore());
+            if (undoButton != null) undoButton.setDisable(!snapshot.canUndo());
+        }
+        if (!engine.isAutoplaying()) { // Game over or won
+            stopEngine();
+            if (gameLogic.isGameOver()) handleGameOver();
+        }
+    }
+
+    // Joins the engine thread; from here on the FX thread owns the game again
+    private void stopEngine() {
+        if (engine == null) return;
+        engineRenderer.stop();
+        engine.close();
+        System.out.println(engine.summary(renderedFrames));
+        engine = null;
+        activeEngine = null;
+        hintLabel.setText("");
+        renderBoard(false);
+    }
+
+    // For the window close handler: takes the game back from a running engine before it is saved
+    public static void stopActiveEngine() {
+        if (activeEngine != null) activeEngine.close();
+    }
+
+    //Replay Viewer
+
+    // Rebuilds the board at the given move from the nearest keyframe and draws it without animation
+    private void showReplayMove(int index) {
+        if (replay == null || index == replayIndex) return;
+        replayIndex = index;
+        replay.seek(index);
+        renderTiles(GameState.of(replay.getBoard(), replay.getScore(), false, false, false), false);
+        updateHud(replay.getScore());
+        String move = index > 0 ? "  (" + replay.getRecord().getMove(index - 1).name().toLowerCase() + ")" : "";
+        replayMoveLabel.setText("move " + index + " / " + replay.getMoveCount() + move);
+    }
+
+    private void stepReplay(int delta) {
+        int target = Math.max(0, Math.min(replay.getMoveCount(), replayIndex + delta));
+        if (target == replay.getMoveCount()) replayTimeline.stop();
+        replaySlider.setValue(target);
+    }
+
+    @FXML private void onReplayPlayToggle(ActionEvent event) {
+        if (replayTimeline.getStatus() == Animation.Status.RUNNING) {
+            replayTimeline.stop();
+        } else {
+            if (replayIndex == replay.getMoveCount()) replaySlider.setValue(0); // Restart from the beginning
+            replayTimeline.play();
+        }
+    }
+
+    @FXML private void onReplayBackClick(ActionEvent event) {
+        if (replayTimeline != null) replayTimeline.stop();
+        loadHighScoresScene();
+    }
+
     //Navigation & Action Handlers
 
     @FXML private void onInfoClick(ActionEvent event) { loadInfoScene(); }
@@ -314,44 +630,33 @@ public class SceneController implements Initializable {
     @FXML private void onBackToMenuClick(ActionEvent event) { loadMainMenuScene(); }
     @FXML private void onThemeToggle(ActionEvent event) { Game2048.toggleTheme(stage.getScene()); updateThemeButtonText(); }
     @FXML private void onQuitButtonClick(ActionEvent event) {
-        if (gameLogic != null) gameLogic.saveGame(GameController.getSaveFile());
+        if (gameLogic != null) gameLogic.saveGameAsync(GameController.getSaveFile());
         Platform.exit();
     }
 
     @FXML
     private void onNewGameButtonClick(ActionEvent event) {
-        if (GameController.saveFileExists(GameController.getSaveFile())) {
-            GameController saved = GameController.loadGame(GameController.getSaveFile());
-            if (saved != null && !saved.isGameOver()) {
-                if (newGameConfirmationOverlay != null) newGameConfirmationOverlay.setVisible(true);
-                return;
-            }
+        if (SaveRepository.getDefault().hasGameInProgress()) {
+            if (newGameConfirmationOverlay != null) newGameConfirmationOverlay.setVisible(true);
+            return;
         }
         launchNewGame();
     }
 
     @FXML
     private void onPlayButtonClick(ActionEvent event) {
-        if (GameController.saveFileExists(GameController.getSaveFile())) {
-            GameController loaded = GameController.loadGame(GameController.getSaveFile());
-            if (loaded.isGameOver()) {
-                launchNewGame(); // Start fresh if saved game was over
-            } else {
-                loadGameScene(loaded); // Resume
-            }
+        SaveRepository saves = SaveRepository.getDefault();
+        if (saves.hasGameInProgress()) {
+            loadGameScene(saves.loadGame()); // Resume
         } else {
-            launchNewGame();
+            launchNewGame(); // No save, or the saved game was over
         }
     }
 
     private void launchNewGame() {
-        GameController newGame = new GameController();
-        // Preserve High Scores from save file if it exists
-        if (GameController.saveFileExists(GameController.getSaveFile())) {
-            GameController oldData = GameController.loadGame(GameController.getSaveFile());
-            if (oldData != null) newGame.setHighScores(oldData.getHighScores());
-        }
-        loadGameScene(newGame);
+        Leaderboard.getDefault(); // Imports the high scores of an older save before the new game replaces it
+        if (Metrics.ENABLED) Metrics.GAMES_STARTED.increment();
+        loadGameScene(new GameController(newGameSize));
     }
 
     @FXML
@@ -366,14 +671,32 @@ public class SceneController implements Initializable {
     }
 
     @FXML private void onBackButtonClick(ActionEvent event) {
-        if (gameLogic != null) gameLogic.saveGame(GameController.getSaveFile());
+        autoplayMode = AutoplayMode.OFF;
+        stopEngine();
+        if (gameLogic != null) {
+            applyQueuedMoves(); // Typed moves count even if the animation did not finish
+            gameLogic.saveGameAsync(GameController.getSaveFile());
+        }
         loadMainMenuScene();
     }
 
     @FXML private void onUndoButtonClick(ActionEvent event) {
+        if (engine != null) {
+            engine.submit(GameController::undo);
+            requestGridFocus();
+            return;
+        }
+        applyQueuedMoves(); // Undo the last move typed, not the last one animated
         if (gameLogic.undo()) {
-            oldBoardState = deepCopy(gameLogic.getBoard());
-            updateBoardUI();
+            renderBoard(false);
+        }
+        requestGridFocus();
+    }
+
+    private void onRedo() {
+        applyQueuedMoves();
+        if (gameLogic.redo()) {
+            renderBoard(false);
         }
         requestGridFocus();
     }
@@ -391,7 +714,7 @@ public class SceneController implements Initializable {
     @FXML private void onSubmitHighScore(ActionEvent event) {
         String name = nameInput.getText();
         gameLogic.addHighScore(name, gameLogic.getScore());
-        gameLogic.saveGame(GameController.getSaveFile());
+        gameLogic.saveGameAsync(GameController.getSaveFile());
         highScoreOverlay.setVisible(false);
         loadHighScoresScene();
     }
@@ -407,56 +730,88 @@ public class SceneController implements Initializable {
     //Scene Loading Helpers
 
     private void loadInfoScene() {
-        loadScene("/com/pateda/game2048/info.fxml", "2048 - Information", true);
+        loadScene(SceneManager.View.INFO, "2048 - Information", true);
     }
 
     private void loadHighScoresScene() {
-        SceneController c = loadScene("/com/pateda/game2048/highscores.fxml", "2048 - High Scores", true);
+        SceneController c = loadScene(SceneManager.View.HIGH_SCORES, "2048 - High Scores", true);
         if (c != null) c.populateHighScores();
     }
 
+    private void loadReplayScene(HighScore highScore) {
+        GameReplay loadedReplay;
+        try {
+            loadedReplay = new GameReplay(GameRecord.fromBytes(highScore.getReplay()));
+        } catch (RuntimeException e) {
+            System.err.println("Could not load replay for " + highScore.getName() + ": " + e.getMessage());
+            return;
+        }
+        SceneController c = loadScene(SceneManager.View.REPLAY, "2048 - Replay: " + highScore.getName(), false);
+        if (c != null) {
+            c.replayTimeline.stop();
+            c.replay = loadedReplay;
+            c.replayIndex = -1;
+            c.replaySlider.setMax(loadedReplay.getMoveCount());
+            c.replaySlider.setValue(0);
+            c.showReplayMove(0);
+            stage.getScene().setOnKeyPressed(c::handleReplayKeyPress);
+        }
+    }
+
     private void loadMainMenuScene() {
-        loadScene("/com/pateda/game2048/main-menu.fxml", "2048", false);
+        SceneController c = loadScene(SceneManager.View.MAIN_MENU, menuTitle(), false);
+        if (c != null) c.onMenuShown();
         activeGameInstance = null;
     }
 
+    // Menu keys and focus; also called by Game2048 for the first frame
+    void onMenuShown() {
+        if (newGameConfirmationOverlay != null) newGameConfirmationOverlay.setVisible(false);
+        updateThemeButtonText();
+        stage.getScene().setOnKeyPressed(this::handleMenuKeyPress);
+        playButton.getParent().requestFocus();
+    }
+
     private void loadGameScene(GameController controllerInstance) {
-        SceneController c = loadScene("/com/pateda/game2048/game-scene.fxml", "2048 Game", false);
+        SceneController c = loadScene(SceneManager.View.GAME, "2048 Game", false);
         if (c != null) {
-            c.gameLogic = controllerInstance;
+            c.resetGameView(controllerInstance);
             activeGameInstance = controllerInstance;
-            c.oldBoardState = c.deepCopy(controllerInstance.getBoard());
-            c.updateBoardUI();
+            c.renderBoard(false);
             c.requestGridFocus();
         }
     }
 
-    // Generic Scene Loader to reduce code duplication
-    private SceneController loadScene(String fxmlPath, String title, boolean attachBackListener) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Parent root = loader.load();
-            SceneController controller = loader.getController();
-            controller.setStage(stage);
-
-            Scene scene = new Scene(root, 800, 800);
-            if (attachBackListener) {
-                scene.setOnKeyPressed(controller::handleBackKeyOnly);
-            }
-            Game2048.applyTheme(scene);
-            stage.setScene(scene);
-            stage.setTitle(title);
-            return controller;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
+    // Clears what the previous game left in the cached game view; tiles are rebuilt only if the size changed
+    private void resetGameView(GameController controllerInstance) {
+        stopEngine();
+        gameLogic = controllerInstance;
+        autoplayMode = AutoplayMode.OFF;
+        queuedMoves.clear();
+        if (tileAnimator != null) tileAnimator.finish();
+        winMessageOverlay.setVisible(false);
+        highScoreOverlay.setVisible(false);
+        gameOverOverlay.setVisible(false);
+        hintLabel.setText("");
+        renderedScore = -1;
+        int size = controllerInstance.getBoardSize();
+        if (tileLabels == null || tileLabels.length != size * size) buildTiles(gameGrid, size);
+    }
+
+    // Shows a cached view on the single application Scene
+    private SceneController loadScene(SceneManager.View view, String title, boolean attachBackListener) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        SceneController controller = sceneManager.show(view, title);
+        if (controller != null) {
+            stage.getScene().setOnKeyPressed(attachBackListener ? controller::handleBackKeyOnly : null);
         }
+        if (Metrics.ENABLED) Metrics.LOAD_SCENE.recordSince(start);
+        return controller;
     }
 
     public void populateHighScores() {
         if (highScoreList == null) return;
-        GameController data = GameController.loadGame(GameController.getSaveFile());
-        List<HighScore> scores = data.getHighScores();
+        List<HighScore> scores = Leaderboard.getDefault().top(Leaderboard.TABLE_SIZE);
         highScoreList.getChildren().clear();
 
         int rank = 1;
@@ -474,6 +829,11 @@ public class SceneController implements Initializable {
             scoreLbl.setAlignment(javafx.geometry.Pos.CENTER_RIGHT);
 
             row.getChildren().addAll(rankLbl, nameLbl, dateLbl, scoreLbl);
+            if (hs.getReplay() != null) {
+                // Recorded games open in the replay viewer
+                row.setCursor(Cursor.HAND);
+                row.setOnMouseClicked(e -> loadReplayScene(hs));
+            }
             highScoreList.getChildren().add(row);
         }
     }
@@ -487,14 +847,6 @@ public class SceneController implements Initializable {
 
     //Helper Methods
 
-    private int[][] deepCopy(int[][] source) {
-        int[][] destination = new int[BOARD_SIZE][BOARD_SIZE];
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            System.arraycopy(source[i], 0, destination[i], 0, BOARD_SIZE);
-        }
-        return destination;
-    }
-
     public void requestGridFocus() {
         if (gameGrid != null) {
             Platform.runLater(() -> gameGrid.requestFocus());
@@ -0,0 +1,178 @@
+package com.pateda.game2048;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Owns the application's single Scene and one cached root + controller per view.
+// The main menu is parsed on the FX thread at startup; the other views are parsed on a background thread right
+// after, so navigating only swaps the Scene's root. The theme stylesheet sits on the Scene, so a theme change
+// is applied once and every cached view picks it up.
+public class SceneManager {
+
+    public enum View {
+        MAIN_MENU("main-menu.fxml"),
+        GAME("game-scene.fxml"),
+        HIGH_SCORES("highscores.fxml"),
+        INFO("info.fxml"),
+        REPLAY("replay.fxml");
+
+        private final String fxmlPath;
+
+        View(String fxmlFile) {
+            this.fxmlPath = "/com/pateda/game2048/" + fxmlFile;
+        }
+    }
+
+    private record LoadedView(Parent root, SceneController controller) {}
+
+    private final Stage stage;
+    private final Scene scene;
+    private final Map<View, CompletableFuture<LoadedView>> views = new EnumMap<>(View.class);
+    private final CompletableFuture<Void> preloaded;
+
+    // Switch being timed until the next layout pulse (FX thread only)
+    private long switchStart;
+    private View switchView;
+    private boolean switchPreloaded;
+
+    private int switchCount;
+    private long totalSwitchNanos;
+    private long maxSwitchNanos;
+
+    public SceneManager(Stage stage) throws IOException {
+        this.stage = stage;
+        long start = System.nanoTime();
+        LoadedView menu = load(View.MAIN_MENU); // Needed for the first frame
+        views.put(View.MAIN_MENU, CompletableFuture.completedFuture(menu));
+        System.out.printf("Loaded %s in %.2f ms%n", View.MAIN_MENU, (System.nanoTime() - start) / 1e6);
+        StartupTimer.mark("Main menu FXML loaded");
+
+        scene = new Scene(menu.root(), 800, 800);
+        Game2048.applyTheme(scene);
+        scene.addPostLayoutPulseListener(this::onLayoutPulse);
+
+        // Nodes may be built off the FX thread as long as they are not in a showing scene yet
+        ExecutorService preloader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scene-preloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (View view : View.values()) {
+            if (view != View.MAIN_MENU) views.put(view, CompletableFuture.supplyAsync(() -> preload(view), preloader));
+        }
+        preloader.shutdown(); // Runs the queued loads, then the thread exits
+        preloaded = CompletableFuture.allOf(views.values().toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> null); // Failed views are retried on use
+        preloaded.thenRun(() -> StartupTimer.mark("Views preloaded"));
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    // Completes once every view has been preloaded (or failed to)
+    public CompletableFuture<Void> preloaded() {
+        return preloaded;
+    }
+
+    // Cached controller of a view, waiting for its preload if needed
+    public SceneController getController(View view) {
+        LoadedView loaded = get(view);
+        return loaded == null ? null : loaded.controller();
+    }
+
+    // Swaps the view's root into the scene; returns its controller, or null if the view failed to load
+    public SceneController show(View view, String title) {
+        long start = System.nanoTime();
+        GameEvents.SceneSwitch event = new GameEvents.SceneSwitch();
+        event.begin();
+        boolean preloaded = views.get(view).isDone();
+        LoadedView loaded = get(view);
+        if (loaded == null) return null;
+
+        if (scene.getRoot() != loaded.root()) scene.setRoot(loaded.root());
+        stage.setTitle(title);
+        if (event.shouldCommit()) {
+            event.view = view.name();
+            event.preloaded = preloaded;
+            event.commit();
+        }
+        switchStart = start;
+        switchView = view;
+        switchPreloaded = preloaded;
+        return loaded.controller();
+    }
+
+    private LoadedView get(View view) {
+        try {
+            return views.get(view).join();
+        } catch (CompletionException e) {
+            // Preload failed; try once more on this thread and keep the result
+            try {
+                LoadedView loaded = load(view);
+                views.put(view, CompletableFuture.completedFuture(loaded));
+                return loaded;
+            } catch (IOException retryError) {
+                retryError.printStackTrace();
+                return null;
+            }
+        }
+    }
+
+    private LoadedView preload(View view) {
+        long start = System.nanoTime();
+        try {
+            LoadedView loaded = load(view);
+            System.out.printf("Preloaded %s in %.2f ms%n", view, (System.nanoTime() - start) / 1e6);
+            return loaded;
+        } catch (IOException e) {
+            System.err.println("Error preloading " + view + ": " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private LoadedView load(View view) throws IOException {
+        GameEvents.FxmlLoad event = new GameEvents.FxmlLoad();
+        event.begin();
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(view.fxmlPath));
+        Parent root = loader.load();
+        SceneController controller = loader.getController();
+        controller.setStage(stage);
+        controller.setSceneManager(this);
+        if (event.shouldCommit()) {
+            event.view = view.name();
+            event.commit();
+        }
+        return new LoadedView(root, controller);
+    }
+
+    //Metrics
+
+    // Time from the switch request until the new root has been styled and laid out for its first frame
+    private void onLayoutPulse() {
+        if (switchStart == 0) return;
+        long nanos = System.nanoTime() - switchStart;
+        switchStart = 0;
+        switchCount++;
+        totalSwitchNanos += nanos;
+        maxSwitchNanos = Math.max(maxSwitchNanos, nanos);
+        System.out.printf("Switched to %s in %.2f ms%s%n", switchView, nanos / 1e6,
+                switchPreloaded ? "" : " (waited for preload)");
+    }
+
+    public String summary() {
+        return String.format("%d view switches (avg %.2f ms, max %.2f ms)", switchCount,
+                switchCount == 0 ? 0 : totalSwitchNanos / 1e6 / switchCount, maxSwitchNanos / 1e6);
+    }
+}
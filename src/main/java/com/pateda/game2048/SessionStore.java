@@ -0,0 +1,231 @@
+package com.pateda.game2048;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// Bounded in-memory store of server game sessions, each with its own GameController (no user.home save, no
+// static active game). A sweeper snapshots changed sessions in the background and evicts the ones idle longer
+// than the timeout; when the store is full, the least recently used session is evicted. Evicted sessions are
+// restored from their snapshot on the next request for their id.
+public class SessionStore {
+
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{16}"); // Also keeps ids safe as file names
+    private static final int HISTORY_LIMIT = 1000; // Undo steps kept per session, so long games stay small in memory
+
+    public static final int MAX_PLAYER_LENGTH = 64; // Well within the snapshot's writeUTF limit of 65535 bytes
+
+    public static final class Session {
+        private final String id;
+        private final String player;
+        private final GameController game;
+        private volatile long lastAccessNanos = System.nanoTime(); // Also read without the lock by the LRU scan
+        private boolean dirty; // Changed since the last snapshot
+        private boolean evicted; // Removed from the store; callers must look the id up again
+        private boolean ranked; // Final score already sent to the leaderboard
+
+        private Session(String id, String player, GameController game) {
+            this.id = id;
+            this.player = player;
+            this.game = game;
+        }
+
+        public String getId() { return id; }
+        public String getPlayer() { return player; }
+        public GameController getGame() { return game; }
+
+        public void markChanged() { dirty = true; }
+
+        // True the first time it is called for a finished game
+        public boolean markRanked() {
+            if (ranked || !game.isGameOver()) return false;
+            ranked = true;
+            return true;
+        }
+    }
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    private final Path snapshotDirectory;
+    private final SaveService saves = new SaveService(false);
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder restores = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+
+    public SessionStore(int maxSessions, long idleTimeout, TimeUnit unit, Path snapshotDirectory) throws IOException {
+        this.maxSessions = maxSessions;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.snapshotDirectory = Files.createDirectories(snapshotDirectory);
+        long sweepNanos = Math.max(TimeUnit.SECONDS.toNanos(1), idleTimeoutNanos / 4);
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepNanos, sweepNanos, TimeUnit.NANOSECONDS);
+    }
+
+    //Sessions
+
+    public Session create(String player, long seed, int size) {
+        if (player.length() > MAX_PLAYER_LENGTH) {
+            throw new IllegalArgumentException("player name longer than " + MAX_PLAYER_LENGTH + " characters");
+        }
+        String id;
+        Session session;
+        do {
+            id = String.format("%016x", ThreadLocalRandom.current().nextLong());
+            GameController game = new GameController(seed, size);
+            game.setHistoryLimit(HISTORY_LIMIT);
+            session = new Session(id, player, game);
+        } while (Files.exists(snapshotFile(id)) || sessions.putIfAbsent(id, session) != null);
+        session.dirty = true;
+        created.increment();
+        if (sessions.size() > maxSessions) evictLeastRecentlyUsed();
+        return session;
+    }
+
+    // Runs the action on the session under its lock; returns null if the id is unknown
+    public <T> T withSession(String id, Function<Session, T> action) {
+        if (!ID.matcher(id).matches()) return null;
+        while (true) {
+            Session session = sessions.get(id);
+            if (session == null) {
+                session = sessions.computeIfAbsent(id, this::restore);
+                if (session == null) return null;
+                if (sessions.size() > maxSessions) evictLeastRecentlyUsed(); // The restored session is the newest
+            }
+            synchronized (session) {
+                if (session.evicted) continue; // Lost a race with the sweeper; it is on disk (or queued) now
+                session.lastAccessNanos = System.nanoTime();
+                return action.apply(session);
+            }
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    //Eviction & Snapshots
+
+    private void sweep() {
+        try {
+            long now = System.nanoTime();
+            for (Session session : sessions.values()) {
+                synchronized (session) {
+                    if (session.evicted) continue;
+                    if (now - session.lastAccessNanos > idleTimeoutNanos) {
+                        evict(session);
+                    } else if (session.dirty) {
+                        snapshot(session);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace(); // Keep the schedule alive
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        while (sessions.size() > maxSessions) {
+            Session oldest = null;
+            for (Session session : sessions.values()) {
+                if (oldest == null || session.lastAccessNanos < oldest.lastAccessNanos) oldest = session;
+            }
+            if (oldest == null) return;
+            synchronized (oldest) {
+                if (!oldest.evicted && !evict(oldest)) return; // Over capacity until a snapshot succeeds
+            }
+        }
+    }
+
+    // Caller holds the session's lock. A session whose snapshot failed stays in memory instead of being lost
+    private boolean evict(Session session) {
+        if (session.dirty && !snapshot(session)) return false;
+        session.evicted = true;
+        sessions.remove(session.id, session);
+        evictions.increment();
+        return true;
+    }
+
+    // Caller holds the session's lock. Written by the store's SaveService, which keeps only the latest pending
+    // snapshot per file and serves it to restore() until it is on disk
+    private boolean snapshot(Session session) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(session.player);
+            out.writeBoolean(session.ranked);
+            out.write(session.game.encodeSave(GameController.SaveFormat.BINARY));
+            saves.submit(snapshotFile(session.id).toString(), bytes.toByteArray());
+            session.dirty = false;
+            snapshots.increment();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error snapshotting session " + session.id + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private Session restore(String id) {
+        Path file = snapshotFile(id);
+        try {
+            byte[] data = saves.pendingSnapshot(file.toString());
+            InputStream input = data != null ? new ByteArrayInputStream(data) : Files.newInputStream(file);
+            try (DataInputStream in = new DataInputStream(input)) {
+                String player = in.readUTF();
+                boolean ranked = in.readBoolean();
+                GameController game = GameController.decodeSave(in.readAllBytes());
+                game.setHistoryLimit(HISTORY_LIMIT);
+                Session session = new Session(id, player, game);
+                session.ranked = ranked;
+                restores.increment();
+                return session;
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot restore session " + id, e);
+        }
+    }
+
+    private Path snapshotFile(String id) {
+        return snapshotDirectory.resolve(id + ".dat");
+    }
+
+    // Snapshots every changed session and waits until all snapshots are on disk
+    public void close() {
+        sweeper.shutdownNow();
+        for (Session session : sessions.values()) {
+            synchronized (session) {
+                if (session.dirty) snapshot(session);
+            }
+        }
+        saves.shutdown();
+    }
+
+    public String summary() {
+        return String.format("Sessions: %d live (max %d), %d created, %d evicted, %d restored, %d snapshots",
+                sessions.size(), maxSessions, created.sum(), evictions.sum(), restores.sum(), snapshots.sum());
+    }
+}
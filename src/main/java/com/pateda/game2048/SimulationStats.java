@@ -0,0 +1,74 @@
+package com.pateda.game2048;
+
+import java.io.PrintStream;
+
+// Aggregated results of headless games. Not thread-safe: each worker fills its own instance and they are merged.
+public class SimulationStats {
+
+    private static final int WINNING_EXPONENT = 11; // 2048
+
+    private long games;
+    private long moves;
+    private long totalScore;
+    private long minScore = Long.MAX_VALUE;
+    private long maxScore;
+    private final long[] maxTileCounts = new long[BitBoard.MAX_EXPONENT + 1]; // Indexed by exponent
+    private final long[] scoreBuckets = new long[Long.SIZE]; // Bucket i holds scores in [2^(i-1), 2^i)
+
+    public void record(long score, int maxExponent, long gameMoves) {
+        games++;
+        moves += gameMoves;
+        totalScore += score;
+        minScore = Math.min(minScore, score);
+        maxScore = Math.max(maxScore, score);
+        maxTileCounts[maxExponent]++;
+        scoreBuckets[Long.SIZE - Long.numberOfLeadingZeros(score)]++;
+    }
+
+    public SimulationStats merge(SimulationStats other) {
+        games += other.games;
+        moves += other.moves;
+        totalScore += other.totalScore;
+        minScore = Math.min(minScore, other.minScore);
+        maxScore = Math.max(maxScore, other.maxScore);
+        for (int i = 0; i < maxTileCounts.length; i++) maxTileCounts[i] += other.maxTileCounts[i];
+        for (int i = 0; i < scoreBuckets.length; i++) scoreBuckets[i] += other.scoreBuckets[i];
+        return this;
+    }
+
+    public long getGames() { return games; }
+    public long getMoves() { return moves; }
+    public long getMinScore() { return games == 0 ? 0 : minScore; }
+    public long getMaxScore() { return maxScore; }
+    public double getMeanScore() { return games == 0 ? 0 : (double) totalScore / games; }
+    public long getMaxTileCount(int exponent) { return maxTileCounts[exponent]; }
+
+    // Share of games whose largest tile reached at least 2^exponent
+    public double reachRate(int exponent) {
+        if (games == 0) return 0;
+        long reached = 0;
+        for (int i = exponent; i < maxTileCounts.length; i++) reached += maxTileCounts[i];
+        return (double) reached / games;
+    }
+
+    public void print(PrintStream out, double seconds) {
+        out.printf("Games: %d in %.2f s (%.0f games/sec, %.0f moves/sec)%n",
+                games, seconds, games / seconds, moves / seconds);
+        out.printf("Score: mean %.1f, min %d, max %d%n", getMeanScore(), getMinScore(), maxScore);
+        out.printf("2048 reached: %.2f%%%n", reachRate(WINNING_EXPONENT) * 100);
+
+        out.println("Max tile distribution:");
+        for (int i = 1; i < maxTileCounts.length; i++) {
+            if (maxTileCounts[i] == 0) continue;
+            out.printf("  %6d  %10d  %6.2f%%%n", 1 << i, maxTileCounts[i], 100.0 * maxTileCounts[i] / games);
+        }
+
+        out.println("Score distribution:");
+        for (int i = 0; i < scoreBuckets.length; i++) {
+            if (scoreBuckets[i] == 0) continue;
+            long low = i == 0 ? 0 : 1L << (i - 1);
+            long high = (1L << i) - 1;
+            out.printf("  %8d - %-8d  %10d  %6.2f%%%n", low, high, scoreBuckets[i], 100.0 * scoreBuckets[i] / games);
+        }
+    }
+}
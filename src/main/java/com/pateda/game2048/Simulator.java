@@ -0,0 +1,131 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+// Headless runner: plays complete games with a Strategy, spread over a fork/join pool.
+// Game i is seeded with baseSeed + i, so any single game can be reproduced on its own; every game owns its
+// generators, so workers never share RNG state.
+public class Simulator {
+
+    private static final int GAMES_PER_TASK = 64;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Supplier<Strategy> strategyFactory;
+    private final int parallelism;
+    private Leaderboard leaderboard; // Optional: every finished game's score is added under playerName
+    private String playerName;
+    private GameLogWriter gameLog; // Optional: every finished game's record is appended for GameLogAnalyzer
+
+    public Simulator(Supplier<Strategy> strategyFactory, int parallelism) {
+        this.strategyFactory = strategyFactory;
+        this.parallelism = parallelism;
+    }
+
+    public void recordScores(Leaderboard leaderboard, String playerName) {
+        this.leaderboard = leaderboard;
+        this.playerName = playerName;
+    }
+
+    public void recordGames(GameLogWriter gameLog) {
+        this.gameLog = gameLog;
+    }
+
+    public SimulationStats run(long games, long baseSeed) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new GameRangeTask(0, games, baseSeed));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Plays one game to the end (continuing past 2048) and returns the final controller
+    public static GameController playGame(Strategy strategy, long seed, SimulationStats stats) {
+        GameController game = new GameController(seed, BitBoard.SIZE);
+        SplittableRandom random = new SplittableRandom(seed).split(); // Strategy choices, independent of spawns
+        game.setContinuePlaying(true);
+        long moves = 0;
+
+        while (!game.isGameOver()) {
+            Direction direction = strategy.chooseMove(game.getPackedBoard(), random);
+            if (direction == null || !game.handleMove(direction)) {
+                // Strategy returned an illegal move; fall back so the game still progresses
+                direction = Strategy.firstLegal(game.getPackedBoard(), DIRECTIONS);
+                if (direction == null) break;
+                game.handleMove(direction);
+            }
+            moves++;
+        }
+        if (stats != null) stats.record(game.getScore(), BitBoard.maxExponent(game.getPackedBoard()), moves);
+        return game;
+    }
+
+    private class GameRangeTask extends RecursiveTask<SimulationStats> {
+        private final long from;
+        private final long to;
+        private final long baseSeed;
+
+        GameRangeTask(long from, long to, long baseSeed) {
+            this.from = from;
+            this.to = to;
+            this.baseSeed = baseSeed;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                Strategy strategy = strategyFactory.get();
+                SimulationStats stats = new SimulationStats();
+                for (long i = from; i < to; i++) {
+                    GameController game = playGame(strategy, baseSeed + i, stats);
+                    if (leaderboard != null) leaderboard.add(playerName, game.getScore(), null);
+                    if (gameLog != null) gameLog.append(game.getGameRecord());
+                }
+                return stats;
+            }
+            long mid = (from + to) >>> 1;
+            GameRangeTask left = new GameRangeTask(from, mid, baseSeed);
+            left.fork();
+            SimulationStats right = new GameRangeTask(mid, to, baseSeed).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    // Usage: Simulator [games] [strategy: random|corner|greedy] [seed] [threads] [leaderboard directory or -] [game log]
+    public static void main(String[] args) throws IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        String strategyName = args.length > 1 ? args[1] : "corner";
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        Strategy.byName(strategyName); // Fail fast on an unknown name
+        Simulator simulator = new Simulator(() -> Strategy.byName(strategyName), threads);
+        Leaderboard leaderboard = args.length > 4 && !args[4].equals("-") ? Leaderboard.open(Path.of(args[4])) : null;
+        if (leaderboard != null) simulator.recordScores(leaderboard, strategyName);
+        GameLogWriter gameLog = args.length > 5 ? GameLogWriter.open(Path.of(args[5])) : null;
+        if (gameLog != null) simulator.recordGames(gameLog);
+
+        System.out.printf("Simulating %d games with '%s' strategy on %d threads (seed %d)%n", games, strategyName, threads, seed);
+        long start = System.nanoTime();
+        SimulationStats stats = simulator.run(games, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        stats.print(System.out, seconds);
+
+        if (leaderboard != null) {
+            System.out.printf("Leaderboard %s: %d entries, best %s%n", args[4], leaderboard.size(),
+                    leaderboard.size() > 0 ? leaderboard.atRank(1).getScore() : "-");
+            leaderboard.close();
+        }
+        if (gameLog != null) {
+            gameLog.close();
+            System.out.printf("Game log %s: %d records appended%n", args[5], gameLog.getRecords());
+        }
+    }
+}
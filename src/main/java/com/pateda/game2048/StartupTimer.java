@@ -0,0 +1,58 @@
+package com.pateda.game2048;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Timestamps of the startup phases, measured from JVM start.
+// Time to first frame is always printed; run with -Dgame2048.startupTrace=true to print every phase as it is reached.
+public class StartupTimer {
+
+    public static final boolean TRACE = Boolean.getBoolean("game2048.startupTrace");
+
+    // nanoTime() value at JVM start. The OS reports the process start in wall-clock time, so it is converted once;
+    // if it is unavailable, timing starts when this class is loaded
+    private static final long JVM_START_NANOS;
+    static {
+        long now = System.nanoTime();
+        long startMillis = ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli).orElse(-1L);
+        long sinceStart = startMillis < 0 ? 0 : Math.max(0, System.currentTimeMillis() - startMillis);
+        JVM_START_NANOS = now - sinceStart * 1_000_000;
+    }
+
+    private record Phase(String name, long nanos) {}
+
+    private static final List<Phase> phases = new ArrayList<>(List.of(new Phase("JVM start", 0)));
+    private static volatile long firstFrameNanos = -1;
+
+    // Records a phase; safe to call from any thread
+    public static void mark(String phase) {
+        long nanos = System.nanoTime() - JVM_START_NANOS;
+        synchronized (phases) {
+            phases.add(new Phase(phase, nanos));
+        }
+        if (TRACE) System.out.printf("[startup] %8.1f ms  %s%n", nanos / 1e6, phase);
+    }
+
+    public static void markFirstFrame() {
+        if (firstFrameNanos >= 0) return;
+        mark("First frame");
+        firstFrameNanos = System.nanoTime() - JVM_START_NANOS;
+        System.out.printf("Time to first frame: %.1f ms%n", firstFrameNanos / 1e6);
+    }
+
+    // Milliseconds from JVM start to the first frame of the main menu, or -1 before it is shown
+    public static double timeToFirstFrameMillis() {
+        long nanos = firstFrameNanos;
+        return nanos < 0 ? -1 : nanos / 1e6;
+    }
+
+    // All phases reached so far, one per line
+    public static String summary() {
+        StringBuilder sb = new StringBuilder("Startup phases:");
+        synchronized (phases) {
+            for (Phase phase : phases) sb.append(String.format("%n  %8.1f ms  %s", phase.nanos() / 1e6, phase.name()));
+        }
+        return sb.toString();
+    }
+}
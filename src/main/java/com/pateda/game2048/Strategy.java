@@ -0,0 +1,70 @@
+package com.pateda.game2048;
+
+import com.pateda.game2048.GameController.Direction;
+
+import java.util.random.RandomGenerator;
+
+// Picks the next move for automated play (simulator, autoplay).
+// Implementations receive the packed board (see BitBoard) and the game's random source,
+// and should return a direction that changes the board.
+@FunctionalInterface
+public interface Strategy {
+
+    Direction chooseMove(long board, RandomGenerator random);
+
+    // Any legal move, uniformly at random
+    static Strategy random() {
+        Direction[] directions = Direction.values();
+        return (board, random) -> {
+            Direction direction;
+            do {
+                direction = directions[random.nextInt(directions.length)];
+            } while (BitBoard.move(board, direction) == board);
+            return direction;
+        };
+    }
+
+    // Fixed preference order that keeps large tiles in the bottom-left corner
+    static Strategy corner() {
+        Direction[] order = {Direction.DOWN, Direction.LEFT, Direction.RIGHT, Direction.UP};
+        return (board, random) -> firstLegal(board, order);
+    }
+
+    // Best immediate merge score, ties broken by most empty cells afterwards
+    static Strategy greedy() {
+        Direction[] directions = Direction.values();
+        return (board, random) -> {
+            Direction best = null;
+            long bestValue = -1;
+            for (Direction direction : directions) {
+                long moved = BitBoard.move(board, direction);
+                if (moved == board) continue;
+                long value = (long) BitBoard.scoreDelta(board, direction) * 16 + BitBoard.countEmpty(moved);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = direction;
+                }
+            }
+            return best;
+        };
+    }
+
+    static Strategy byName(String name) {
+        return switch (name.toLowerCase()) {
+            case "random" -> random();
+            case "corner" -> corner();
+            case "greedy" -> greedy();
+            case "expectimax" -> ExpectimaxSearch.fixedDepth(2);
+            case "montecarlo" -> MonteCarloPlayer.headless(100);
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+        };
+    }
+
+    // First direction in the given order that changes the board, or null if none does
+    static Direction firstLegal(long board, Direction[] order) {
+        for (Direction direction : order) {
+            if (BitBoard.move(board, direction) != board) return direction;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.pateda.game2048;
+
+import javafx.animation.AnimationTimer;
+import javafx.animation.Interpolator;
+import javafx.scene.control.Label;
+
+// Drives the scale animations of all tiles of one grid from a single AnimationTimer.
+// Each tile has one animation slot: starting a new animation on a tile that is still animating restarts the slot
+// instead of stacking a second transition on the label, and nothing is allocated per move.
+public class TileAnimator extends AnimationTimer {
+
+    private static final long SPAWN_NANOS = 150_000_000L;
+    private static final double SPAWN_SCALE = 0.7;
+    private static final long PULSE_NANOS = 100_000_000L;
+    private static final double PULSE_SCALE = 1.1;
+
+    private final Label[] labels;
+    private final Runnable onIdle; // Called once all animations have finished
+
+    // Per tile slot; startNanos == 0 means a start is pending, duration == 0 means idle
+    private final long[] startNanos;
+    private final long[] durationNanos;
+    private final double[] fromScale;
+    private int active;
+
+    public TileAnimator(Label[] labels, Runnable onIdle) {
+        this.labels = labels;
+        this.onIdle = onIdle;
+        this.startNanos = new long[labels.length];
+        this.durationNanos = new long[labels.length];
+        this.fromScale = new double[labels.length];
+    }
+
+    // New tile: grows from 70% to full size
+    public void spawn(int cell) {
+        animate(cell, SPAWN_SCALE, SPAWN_NANOS);
+    }
+
+    // Merge or a different tile slid in: shrinks from 110% to full size
+    public void pulse(int cell) {
+        animate(cell, PULSE_SCALE, PULSE_NANOS);
+    }
+
+    private void animate(int cell, double from, long duration) {
+        if (durationNanos[cell] == 0) active++;
+        startNanos[cell] = 0; // Timed from the next frame
+        durationNanos[cell] = duration;
+        fromScale[cell] = from;
+        setScale(cell, from);
+        start();
+    }
+
+    // Drops the tile's animation and shows it at full size
+    public void reset(int cell) {
+        if (durationNanos[cell] != 0) {
+            durationNanos[cell] = 0;
+            active--;
+        }
+        setScale(cell, 1.0);
+    }
+
+    // Jumps every running animation to its end
+    public void finish() {
+        for (int cell = 0; cell < labels.length; cell++) reset(cell);
+        stop();
+    }
+
+    public boolean isAnimating() {
+        return active > 0;
+    }
+
+    @Override
+    public void handle(long now) {
+        for (int cell = 0; cell < labels.length; cell++) {
+            long duration = durationNanos[cell];
+            if (duration == 0) continue;
+            if (startNanos[cell] == 0) startNanos[cell] = now;
+
+            double t = (now - startNanos[cell]) / (double) duration;
+            if (t >= 1) {
+                reset(cell);
+            } else {
+                setScale(cell, Interpolator.EASE_BOTH.interpolate(fromScale[cell], 1.0, t));
+            }
+        }
+        if (active == 0) {
+            stop();
+            onIdle.run();
+        }
+    }
+
+    private void setScale(int cell, double scale) {
+        labels[cell].setScaleX(scale);
+        labels[cell].setScaleY(scale);
+    }
+}
@@ -0,0 +1,137 @@
+package com.pateda.game2048;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-capacity board -> (value, depth) cache for search, backed by two primitive long arrays.
+// Boards are canonicalized under the 8 symmetries before hashing, so rotated/mirrored positions share an entry.
+//
+// Concurrent access is lock-free: each slot stores (key ^ data, data), and a reader only accepts the entry
+// if the two words still xor back to its key. A torn or racing write therefore reads as a miss, never as a wrong value.
+public class TranspositionTable {
+
+    private static final int PROBE_LENGTH = 4; // Slots examined per lookup/store
+
+    // Data word layout: [valid:1][unused:15][age:8][depth:8][value:32 float bits]
+    private static final long VALID_BIT = 1L << 63;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int AGE_SHIFT = 40;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private volatile int age;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder occupied = new LongAdder();
+
+    // Capacity is rounded up to a power of two; each entry costs 16 bytes
+    public TranspositionTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(PROBE_LENGTH, capacity - 1)) << 1;
+        this.keys = new long[size];
+        this.data = new long[size];
+        this.mask = size - 1;
+    }
+
+    // Starts a new search generation; entries from older generations are replaced first
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    // Returns the cached value if an entry of at least the given depth exists, otherwise NaN
+    public double get(long board, int minDepth) {
+        long key = BitBoard.canonical(board);
+        int index = index(key);
+        lookups.increment();
+
+        for (int i = 0; i < PROBE_LENGTH; i++) {
+            int slot = (index + i) & mask;
+            long entry = data[slot];
+            if ((keys[slot] ^ entry) != key || (entry & VALID_BIT) == 0) continue;
+            if (depthOf(entry) < minDepth) return Double.NaN;
+            hits.increment();
+            return Float.intBitsToFloat((int) entry);
+        }
+        return Double.NaN;
+    }
+
+    // Stores a value searched to the given depth, replacing the shallowest or stalest entry in the probe window
+    public void put(long board, int depth, double value) {
+        long key = BitBoard.canonical(board);
+        int index = index(key);
+        int currentAge = age;
+        long entry = VALID_BIT | ((long) currentAge << AGE_SHIFT) | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+                | (Float.floatToRawIntBits((float) value) & 0xFFFFFFFFL);
+
+        int victim = -1;
+        int victimPriority = Integer.MAX_VALUE;
+        for (int i = 0; i < PROBE_LENGTH; i++) {
+            int slot = (index + i) & mask;
+            long existing = data[slot];
+
+            if ((existing & VALID_BIT) == 0) {
+                victim = slot;
+                occupied.increment();
+                break;
+            }
+            if ((keys[slot] ^ existing) == key) {
+                if (depthOf(existing) > depth && ageOf(existing) == currentAge) return; // Keep the deeper result
+                victim = slot;
+                break;
+            }
+            // Stale generations lose to anything current; within a generation, shallow entries go first
+            int priority = (ageOf(existing) == currentAge ? 256 : 0) + depthOf(existing);
+            if (priority < victimPriority) {
+                victimPriority = priority;
+                victim = slot;
+            }
+        }
+
+        data[victim] = entry;
+        keys[victim] = key ^ entry;
+        stores.increment();
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        occupied.reset();
+        lookups.reset();
+        hits.reset();
+        stores.reset();
+    }
+
+    //Counters
+
+    public int capacity() { return keys.length; }
+    public long getLookups() { return lookups.sum(); }
+    public long getHits() { return hits.sum(); }
+    public long getStores() { return stores.sum(); }
+
+    public double hitRate() {
+        long total = lookups.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    // Approximate: concurrent stores racing for the same empty slot may both count it
+    public double occupancy() {
+        return Math.min(1.0, (double) occupied.sum() / keys.length);
+    }
+
+    //Helpers
+
+    private int index(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads the nibble patterns
+        return (int) (h >>> 32) & mask;
+    }
+
+    private static int depthOf(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    private static int ageOf(long entry) {
+        return (int) (entry >>> AGE_SHIFT) & 0xFF;
+    }
+}
@@ -1,6 +1,10 @@
 module com.pateda.game2048 {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.management;
+    requires jdk.jfr;
+    requires jdk.httpserver;
+    requires java.net.http;
     requires com.fasterxml.jackson.annotation;
     requires com.fasterxml.jackson.databind;
 